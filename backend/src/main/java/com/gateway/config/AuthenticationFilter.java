@@ -52,8 +52,8 @@ public class AuthenticationFilter extends HttpFilter {
             return;
         }
 
-        Optional<Merchant> merchantOpt = merchantService.getMerchantByApiKey(apiKey);
-        if (merchantOpt.isEmpty() || !merchantOpt.get().getApiSecret().equals(apiSecret)) {
+        Optional<Merchant> merchantOpt = merchantService.authenticate(apiKey, apiSecret);
+        if (merchantOpt.isEmpty()) {
             sendAuthError(response);
             return;
         }
@@ -0,0 +1,110 @@
+package com.gateway.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gateway.dto.ErrorResponse;
+import com.gateway.models.Merchant;
+import com.gateway.services.ExportService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Reconciliation exports. The file is streamed to the response on an async thread while rows are
+ * read, so it is never held in memory; {@code gzip=true} compresses it on the fly.
+ */
+@RestController
+@RequestMapping("/api/v1/exports")
+@RequiredArgsConstructor
+public class ExportController {
+
+    private final ExportService exportService;
+    private final ObjectMapper objectMapper;
+
+    @GetMapping("/payments")
+    public ResponseEntity<StreamingResponseBody> exportPayments(
+            HttpServletRequest httpRequest,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        return export("payments", httpRequest, from, to, format, gzip);
+    }
+
+    @GetMapping("/refunds")
+    public ResponseEntity<StreamingResponseBody> exportRefunds(
+            HttpServletRequest httpRequest,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        return export("refunds", httpRequest, from, to, format, gzip);
+    }
+
+    private ResponseEntity<StreamingResponseBody> export(String type, HttpServletRequest httpRequest,
+                                                         LocalDateTime from, LocalDateTime to, String format, boolean gzip) {
+        Merchant merchant = (Merchant) httpRequest.getAttribute("merchant");
+        if (merchant == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+
+        ExportService.Format exportFormat;
+        try {
+            exportFormat = ExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return badRequest("format must be csv or ndjson");
+        }
+
+        // Defaults to the previous day, the usual reconciliation window
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusDays(1);
+        if (!start.isBefore(end)) {
+            return badRequest("from must be before to");
+        }
+
+        String extension = exportFormat == ExportService.Format.CSV ? "csv" : "ndjson";
+        String fileName = type + "_" + start.toLocalDate() + "_" + end.toLocalDate() + "." + extension + (gzip ? ".gz" : "");
+        String contentType = gzip ? "application/gzip"
+                : exportFormat == ExportService.Format.CSV ? "text/csv;charset=UTF-8" : "application/x-ndjson;charset=UTF-8";
+
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                try (GZIPOutputStream compressed = new GZIPOutputStream(out, 64 * 1024)) {
+                    write(type, merchant, start, end, exportFormat, compressed);
+                }
+            } else {
+                write(type, merchant, start, end, exportFormat, out);
+                out.flush();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(contentType))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
+    }
+
+    // Same JSON error body as the other endpoints; the return type has to stay a streaming body
+    private ResponseEntity<StreamingResponseBody> badRequest(String description) {
+        ErrorResponse error = new ErrorResponse("BAD_REQUEST_ERROR", description);
+        return ResponseEntity.badRequest()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> out.write(objectMapper.writeValueAsBytes(error)));
+    }
+
+    private void write(String type, Merchant merchant, LocalDateTime from, LocalDateTime to,
+                       ExportService.Format format, OutputStream out) {
+        if ("payments".equals(type)) {
+            exportService.exportPayments(merchant.getId(), from, to, format, out);
+        } else {
+            exportService.exportRefunds(merchant.getId(), from, to, format, out);
+        }
+    }
+}
@@ -1,14 +1,20 @@
 package com.gateway.controllers;
 
 import com.gateway.dto.CreateOrderRequest;
+import com.gateway.dto.CursorPage;
 import com.gateway.dto.ErrorResponse;
+import com.gateway.dto.PageCursor;
 import com.gateway.models.Merchant;
 import com.gateway.models.Order;
+import com.gateway.services.CheckoutCache;
 import com.gateway.services.OrderService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -18,6 +24,7 @@ import org.springframework.web.bind.annotation.*;
 public class OrderController {
 
     private final OrderService orderService;
+    private final CheckoutCache checkoutCache;
 
     @PostMapping
     public ResponseEntity<?> createOrder(@RequestBody CreateOrderRequest request, HttpServletRequest httpRequest) {
@@ -31,6 +38,23 @@ public class OrderController {
         return ResponseEntity.status(HttpStatus.CREATED).body(order);
     }
 
+    // Newest first; pass next_cursor back as ?cursor= for the following page
+    @GetMapping
+    public ResponseEntity<?> getOrders(
+            HttpServletRequest httpRequest,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String status) {
+        Merchant merchant = (Merchant) httpRequest.getAttribute("merchant");
+        if (merchant == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        try {
+            return ResponseEntity.ok(orderService.getOrdersByMerchant(merchant.getId(), status,
+                    PageCursor.decode(cursor), CursorPage.clampLimit(limit)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse("BAD_REQUEST_ERROR", e.getMessage()));
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<?> getOrder(@PathVariable String id, HttpServletRequest httpRequest) {
         // Auth check is done by filter, but we might want to check if order belongs to merchant?
@@ -61,13 +85,19 @@ public class OrderController {
     // I added /api/v1/orders/public/* to allowed paths.
     
     @GetMapping("/public/{id}")
-    public ResponseEntity<?> getPublicOrder(@PathVariable String id) {
-        Order order = orderService.getOrder(id);
+    public ResponseEntity<?> getPublicOrder(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        CheckoutCache.Snapshot order = checkoutCache.getOrder(id);
         if (order == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ErrorResponse("NOT_FOUND_ERROR", "Order not found"));
         }
         // Return only basic info? Spec: "id, amount, currency, status"
         // Returning full order is fine for now.
-        return ResponseEntity.ok(order);
+        if (order.matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(order.etag()).build();
+        }
+        return ResponseEntity.ok().eTag(order.etag()).cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON).body(order.json());
     }
 }
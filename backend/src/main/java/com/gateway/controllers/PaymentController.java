@@ -1,19 +1,31 @@
 package com.gateway.controllers;
 
 import com.gateway.dto.CreatePaymentRequest;
+import com.gateway.dto.CursorPage;
 import com.gateway.dto.ErrorResponse;
+import com.gateway.dto.PageCursor;
 import com.gateway.models.Merchant;
 import com.gateway.models.Order;
 import com.gateway.models.Payment;
+import com.gateway.services.AnalyticsService;
+import com.gateway.services.CheckoutCache;
+import com.gateway.services.IdempotencyService;
 import com.gateway.services.OrderService;
 import com.gateway.services.PaymentService;
 import com.gateway.services.ValidationService;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional; 
 import org.springframework.http.ResponseEntity;
@@ -27,7 +39,9 @@ public class PaymentController {
     private final OrderService orderService;
     private final ValidationService validationService;
 
-    private final com.gateway.services.IdempotencyService idempotencyService;
+    private final IdempotencyService idempotencyService;
+    private final AnalyticsService analyticsService;
+    private final CheckoutCache checkoutCache;
 
     @PostMapping
     public ResponseEntity<?> createPayment(
@@ -54,23 +68,34 @@ public class PaymentController {
 
         java.util.UUID merchantId = (authenticatedMerchant != null) ? authenticatedMerchant.getId() : order.getMerchantId();
 
-        // 2. Idempotency Check
+        // 2. Additional Validation (Method specific)
+        ResponseEntity<?> validationResponse = validatePaymentDetails(request);
+        if (validationResponse != null) return validationResponse;
+
+        // 3. Idempotency Check: claim the key, or replay the response of the request that did
+        IdempotencyService.Claim claim = null;
         if (idempotencyKey != null && !idempotencyKey.isEmpty()) {
-            java.util.Optional<Map<String, Object>> cachedResponse = idempotencyService.getResponse(idempotencyKey, merchantId);
-            if (cachedResponse.isPresent()) {
-                return ResponseEntity.status(HttpStatus.CREATED).body(cachedResponse.get());
+            claim = idempotencyService.claim(idempotencyKey, merchantId);
+            if (claim.outcome() == IdempotencyService.Outcome.REPLAY) {
+                return ResponseEntity.status(HttpStatus.CREATED).body(claim.response());
+            }
+            if (claim.outcome() == IdempotencyService.Outcome.IN_FLIGHT) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErrorResponse("IDEMPOTENCY_CONFLICT",
+                        "A request with this Idempotency-Key is still being processed"));
             }
         }
 
-        // 3. Additional Validation (Method specific)
-        ResponseEntity<?> validationResponse = validatePaymentDetails(request);
-        if (validationResponse != null) return validationResponse;
-
         // 4. Create Payment
-        Payment payment = paymentService.createPayment(order, request, idempotencyKey);
+        Payment payment;
+        try {
+            payment = paymentService.createPayment(order, request, idempotencyKey);
+        } catch (RuntimeException e) {
+            if (claim != null) idempotencyService.release(idempotencyKey, merchantId, claim);
+            throw e;
+        }
         
         // 5. Save Idempotency response
-        if (idempotencyKey != null && !idempotencyKey.isEmpty()) {
+        if (claim != null) {
             idempotencyService.saveResponse(idempotencyKey, merchantId, payment);
         }
 
@@ -84,6 +109,7 @@ public class PaymentController {
         
         try {
             Payment payment = paymentService.capturePayment(id, merchant.getId());
+            checkoutCache.invalidatePayments(List.of(payment.getId()));
             return ResponseEntity.ok(payment);
         } catch (IllegalArgumentException e) {
              return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ErrorResponse("NOT_FOUND_ERROR", e.getMessage()));
@@ -127,10 +153,17 @@ public class PaymentController {
     }
 
     @GetMapping("/public/{id}")
-    public ResponseEntity<?> getPublicPayment(@PathVariable String id) {
-        Payment payment = paymentService.getPayment(id);
+    public ResponseEntity<?> getPublicPayment(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // Polled by checkout: served from the cache, and a 304 if nothing changed since the last poll
+        CheckoutCache.Snapshot payment = checkoutCache.getPayment(id);
         if (payment == null) return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
-        return ResponseEntity.ok(payment);
+        if (payment.matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(payment.etag()).build();
+        }
+        return ResponseEntity.ok().eTag(payment.etag()).cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON).body(payment.json());
     }
 
     @GetMapping("/stats")
@@ -142,10 +175,49 @@ public class PaymentController {
         return ResponseEntity.ok(stats);
     }
 
+    // Volume, count and success-rate series from the hourly/daily rollups
+    @GetMapping("/analytics")
+    public ResponseEntity<?> getAnalytics(
+            HttpServletRequest httpRequest,
+            @RequestParam(defaultValue = "hour") String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String groupBy) {
+        Merchant merchant = (Merchant) httpRequest.getAttribute("merchant");
+        if (merchant == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+
+        // Defaults: the last 24 hours, or the last 30 days for daily buckets
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from
+                : AnalyticsService.DAY.equals(granularity) ? end.minusDays(30) : end.minusHours(24);
+
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("granularity", granularity);
+            response.put("from", AnalyticsService.truncate(start, granularity));
+            response.put("to", end);
+            if (groupBy != null) response.put("groupBy", groupBy);
+            response.put("series", analyticsService.getSeries(merchant.getId(), granularity, start, end, groupBy));
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse("BAD_REQUEST_ERROR", e.getMessage()));
+        }
+    }
+
+    // Newest first; pass next_cursor back as ?cursor= for the following page
     @GetMapping
-    public ResponseEntity<?> getAllPayments(HttpServletRequest httpRequest) {
+    public ResponseEntity<?> getAllPayments(
+            HttpServletRequest httpRequest,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String status) {
         Merchant merchant = (Merchant) httpRequest.getAttribute("merchant");
         if (merchant == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
-        return ResponseEntity.ok(paymentService.getPaymentsByMerchant(merchant.getId()));
+        try {
+            return ResponseEntity.ok(paymentService.getPaymentsByMerchant(merchant.getId(), status,
+                    PageCursor.decode(cursor), CursorPage.clampLimit(limit)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse("BAD_REQUEST_ERROR", e.getMessage()));
+        }
     }
 }
\ No newline at end of file
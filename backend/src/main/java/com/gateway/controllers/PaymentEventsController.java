@@ -0,0 +1,145 @@
+package com.gateway.controllers;
+
+import com.gateway.dto.ErrorResponse;
+import com.gateway.services.CheckoutCache;
+import com.gateway.services.PaymentStatusEvents;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Push channel for the checkout page, replacing polling of {@code /payments/public/{id}}.
+ *
+ * Both endpoints use servlet async processing: a waiting client holds a connection but no
+ * request thread, and is completed from {@link PaymentStatusEvents} when the payment changes.
+ */
+@RestController
+@RequestMapping("/api/v1/payments/public")
+@RequiredArgsConstructor
+public class PaymentEventsController {
+
+    private final CheckoutCache checkoutCache;
+    private final PaymentStatusEvents paymentStatusEvents;
+
+    private final AtomicInteger openConnections = new AtomicInteger();
+
+    @Value("${app.payment-events.sse-timeout-ms:300000}")
+    private long sseTimeoutMs;
+
+    @Value("${app.payment-events.long-poll-timeout-ms:25000}")
+    private long longPollTimeoutMs;
+
+    @Value("${app.payment-events.max-connections:10000}")
+    private int maxConnections;
+
+    /**
+     * Server-Sent Events: a {@code payment} event with the current payment right away, then one per
+     * status change. The stream ends once the payment reaches a final status.
+     */
+    @GetMapping("/{id}/events")
+    public ResponseEntity<SseEmitter> streamPayment(@PathVariable String id) throws IOException {
+        if (!tryOpen()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").build();
+        }
+
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        AtomicBoolean done = new AtomicBoolean();
+        Runnable unsubscribe = paymentStatusEvents.subscribe(id, update -> send(emitter, done, update));
+
+        CheckoutCache.Snapshot current = checkoutCache.getPayment(id);
+        if (current == null) {
+            unsubscribe.run();
+            openConnections.decrementAndGet();
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+
+        emitter.onCompletion(() -> {
+            unsubscribe.run();
+            openConnections.decrementAndGet();
+        });
+        // EventSource reconnects by itself after a timeout
+        emitter.onTimeout(() -> {
+            if (done.compareAndSet(false, true)) emitter.complete();
+        });
+        emitter.onError(error -> done.set(true));
+
+        send(emitter, done, paymentStatusEvents.toUpdate(current.json()));
+        return ResponseEntity.ok(emitter);
+    }
+
+    /**
+     * Long-poll fallback: answers as soon as the payment's status differs from {@code status}
+     * (the one the client already has), or with the unchanged payment after the timeout.
+     */
+    @GetMapping("/{id}/wait")
+    public DeferredResult<ResponseEntity<?>> waitForPayment(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "pending") String status) throws IOException {
+        DeferredResult<ResponseEntity<?>> result = new DeferredResult<>(longPollTimeoutMs);
+        if (!tryOpen()) {
+            result.setResult(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5")
+                    .body(new ErrorResponse("SERVICE_UNAVAILABLE", "Too many open connections, poll the payment instead")));
+            return result;
+        }
+
+        Runnable unsubscribe = paymentStatusEvents.subscribe(id, update -> {
+            if (!status.equals(update.status())) result.setResult(json(update.json()));
+        });
+        result.onCompletion(() -> {
+            unsubscribe.run();
+            openConnections.decrementAndGet();
+        });
+        result.onTimeout(() -> {
+            CheckoutCache.Snapshot current = checkoutCache.getPayment(id);
+            result.setResult(current != null ? json(current.json()) : ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+        });
+
+        CheckoutCache.Snapshot current = checkoutCache.getPayment(id);
+        if (current == null) {
+            result.setResult(ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ErrorResponse("NOT_FOUND_ERROR", "Payment not found")));
+        } else {
+            PaymentStatusEvents.Update update = paymentStatusEvents.toUpdate(current.json());
+            if (!status.equals(update.status())) result.setResult(json(update.json()));
+        }
+        return result;
+    }
+
+    private void send(SseEmitter emitter, AtomicBoolean done, PaymentStatusEvents.Update update) {
+        if (done.get()) return;
+        try {
+            synchronized (emitter) {
+                emitter.send(SseEmitter.event().name("payment").data(update.json(), MediaType.APPLICATION_JSON));
+            }
+            if (update.isFinal() && done.compareAndSet(false, true)) {
+                emitter.complete();
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; the emitter's completion callback cleans up
+            done.set(true);
+            emitter.completeWithError(e);
+        }
+    }
+
+    private boolean tryOpen() {
+        if (openConnections.incrementAndGet() > maxConnections) {
+            openConnections.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    private static ResponseEntity<?> json(Object body) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+}
@@ -1,7 +1,9 @@
 package com.gateway.controllers;
 
 import com.gateway.dto.CreateRefundRequest;
+import com.gateway.dto.CursorPage;
 import com.gateway.dto.ErrorResponse;
+import com.gateway.dto.PageCursor;
 import com.gateway.models.Merchant;
 import com.gateway.models.Refund;
 import com.gateway.services.RefundService;
@@ -51,9 +53,20 @@ public class RefundController {
         return ResponseEntity.ok(refund);
     }
 
+    // Newest first; pass next_cursor back as ?cursor= for the following page
     @GetMapping("/refunds")
-    public ResponseEntity<?> getRefunds(HttpServletRequest httpRequest) {
+    public ResponseEntity<?> getRefunds(
+            HttpServletRequest httpRequest,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String status) {
         Merchant merchant = (Merchant) httpRequest.getAttribute("merchant");
-        return ResponseEntity.ok(refundService.getRefundsByMerchant(merchant.getId()));
+        if (merchant == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        try {
+            return ResponseEntity.ok(refundService.getRefundsByMerchant(merchant.getId(), status,
+                    PageCursor.decode(cursor), CursorPage.clampLimit(limit)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse("BAD_REQUEST_ERROR", e.getMessage()));
+        }
     }
 }
@@ -1,15 +1,16 @@
 package com.gateway.controllers;
 
+import com.gateway.dto.CursorPage;
+import com.gateway.dto.ErrorResponse;
+import com.gateway.dto.PageCursor;
 import com.gateway.jobs.DeliverWebhookJob;
 import com.gateway.models.Merchant;
 import com.gateway.models.WebhookLog;
 import com.gateway.repositories.WebhookLogRepository;
 import com.gateway.services.JobService;
+import com.gateway.services.WebhookLogService;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -25,33 +26,28 @@ public class WebhookController {
 
     private final WebhookLogRepository webhookLogRepository;
     private final JobService jobService;
+    private final WebhookLogService webhookLogService;
 
     @GetMapping
     public ResponseEntity<?> getWebhookLogs(
             HttpServletRequest httpRequest,
-            @RequestParam(defaultValue = "0") int offset,
-            @RequestParam(defaultValue = "10") int limit) {
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String event) {
         
         Merchant merchant = (Merchant) httpRequest.getAttribute("merchant");
         if (merchant == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        if (limit > 100) limit = 100;
-
-        // Ensure findByMerchantId in Repository supports Pageable
-        Page<WebhookLog> page = webhookLogRepository.findByMerchantId(
-                merchant.getId(),
-                PageRequest.of(offset / limit, limit, Sort.by(Sort.Direction.DESC, "createdAt"))
-        );
-
-        Map<String, Object> response = new HashMap<>();
-        response.put("data", page.getContent());
-        response.put("total", page.getTotalElements());
-        response.put("limit", limit);
-        response.put("offset", offset);
-
-        return ResponseEntity.ok(response);
+        // Newest first; pass next_cursor back as ?cursor= for the following page
+        try {
+            return ResponseEntity.ok(webhookLogService.getLogs(merchant.getId(), status, event,
+                    PageCursor.decode(cursor), CursorPage.clampLimit(limit)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse("BAD_REQUEST_ERROR", e.getMessage()));
+        }
     }
 
     @PostMapping("/{id}/retry")
@@ -79,6 +75,7 @@ public class WebhookController {
         job.setMerchantId(log.getMerchantId());
         job.setEventType(log.getEvent());
         job.setPayload(log.getPayload()); 
+        job.setBody(log.getBody()); // Resend the exact bytes of earlier attempts
         job.setExistingLogId(log.getId());
 
         jobService.enqueueWebhookJob(job);
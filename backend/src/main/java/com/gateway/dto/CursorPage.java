@@ -0,0 +1,59 @@
+package com.gateway.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated list. {@code next_cursor} is set when more rows follow.
+ */
+@Getter
+public class CursorPage<T> {
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    private final List<T> data;
+
+    @JsonProperty("has_more")
+    private final boolean hasMore;
+
+    @JsonProperty("next_cursor")
+    private final String nextCursor;
+
+    // Optional, possibly approximate count of all matching rows
+    private final Long total;
+
+    private CursorPage(List<T> data, boolean hasMore, String nextCursor, Long total) {
+        this.data = data;
+        this.hasMore = hasMore;
+        this.nextCursor = nextCursor;
+        this.total = total;
+    }
+
+    public static int clampLimit(Integer limit) {
+        if (limit == null || limit <= 0) return DEFAULT_LIMIT;
+        return Math.min(limit, MAX_LIMIT);
+    }
+
+    /**
+     * Builds a page from rows fetched with {@code limit + 1}: the extra row only signals that
+     * another page exists and is dropped.
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int limit,
+                                       Function<T, LocalDateTime> createdAt, Function<T, String> id) {
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, false, null, null);
+        }
+        List<T> page = rows.subList(0, limit);
+        T last = page.get(limit - 1);
+        return new CursorPage<>(page, true, new PageCursor(createdAt.apply(last), id.apply(last)).encode(), null);
+    }
+
+    public CursorPage<T> withTotal(long total) {
+        return new CursorPage<>(data, hasMore, nextCursor, total);
+    }
+}
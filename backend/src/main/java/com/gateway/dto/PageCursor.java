@@ -0,0 +1,40 @@
+package com.gateway.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a list ordered by {@code (created_at DESC, id DESC)}: the sort key of the last row
+ * returned. The next page starts strictly after it, so pages stay stable while new rows are
+ * inserted and each page costs one index range scan however deep the client has paged.
+ *
+ * Clients get it as an opaque URL-safe token.
+ */
+public record PageCursor(LocalDateTime createdAt, String id) {
+
+    // Sorts after every real row, so the first page uses the same query as the following ones
+    public static final PageCursor START = new PageCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), "");
+
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parses a token produced by {@link #encode()}; a missing token means the first page.
+     *
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static PageCursor decode(String token) {
+        if (token == null || token.isEmpty()) return START;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new PageCursor(LocalDateTime.parse(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -30,4 +30,6 @@ public class DeliverWebhookJob implements Serializable {
     private Map<String, Object> payload;
     private UUID existingLogId; // If this is a retry
     private int attemptNumber; // To track attempts passed in or calculated
+    private byte[] body; // Canonical JSON of the payload, serialized once at enqueue and signed/sent as is
+    private long parkDeadline; // Epoch millis after which a parked attempt counts as failed; 0 until first parked
 }
@@ -1,5 +1,6 @@
 package com.gateway.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import org.hibernate.annotations.CreationTimestamp;
@@ -31,9 +32,15 @@ public class Merchant {
     @Column(name = "api_key", nullable = false, unique = true, length = 64)
     private String apiKey;
 
-    @Column(name = "api_secret", nullable = false, length = 64)
+    // Plaintext secret of rows created before hashing; cleared once the hash is stored
+    @Column(name = "api_secret", length = 64)
     private String apiSecret;
 
+    // SHA-256 hex of the API secret, see ApiSecrets
+    @JsonIgnore
+    @Column(name = "api_secret_hash", length = 64)
+    private String apiSecretHash;
+
     @Column(name = "webhook_url", columnDefinition = "TEXT")
     private String webhookUrl;
 
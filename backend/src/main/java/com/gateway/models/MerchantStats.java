@@ -0,0 +1,32 @@
+package com.gateway.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.util.UUID;
+
+/**
+ * Running payment totals per merchant, updated in the same transaction as the payments they count
+ * and recomputed from the payments table by {@link com.gateway.workers.MerchantStatsRebuildJob}.
+ */
+@Data
+@Entity
+@Table(name = "merchant_stats")
+public class MerchantStats {
+
+    @Id
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(name = "merchant_id", columnDefinition = "VARCHAR(36)")
+    private UUID merchantId;
+
+    @Column(name = "total_transactions", nullable = false)
+    private long totalTransactions;
+
+    @Column(name = "success_count", nullable = false)
+    private long successCount;
+
+    @Column(name = "success_amount", nullable = false)
+    private long successAmount;
+}
@@ -1,5 +1,6 @@
 package com.gateway.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import org.hibernate.annotations.CreationTimestamp;
@@ -7,6 +8,7 @@ import org.hibernate.annotations.UpdateTimestamp;
 
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
+import org.springframework.data.domain.Persistable;
 import java.time.LocalDateTime;
 import java.util.Map;
 import java.util.UUID;
@@ -14,9 +16,11 @@ import java.util.UUID;
 @Data
 @Entity
 @Table(name = "orders", indexes = {
-    @Index(name = "idx_orders_merchant_id", columnList = "merchant_id")
+    @Index(name = "idx_orders_merchant_id", columnList = "merchant_id"),
+    @Index(name = "idx_orders_merchant_created", columnList = "merchant_id, created_at, id"),
+    @Index(name = "idx_orders_merchant_status_created", columnList = "merchant_id, status, created_at, id")
 })
-public class Order {
+public class Order implements Persistable<String> {
 
     @Id
     @Column(length = 64)
@@ -49,4 +53,21 @@ public class Order {
     @UpdateTimestamp
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
+
+    // Ids are assigned by IdGenerator; without this save() would SELECT before every insert
+    @Transient
+    @JsonIgnore
+    private boolean persisted;
+
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
 }
@@ -0,0 +1,32 @@
+package com.gateway.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A job written in the same transaction as the row it refers to and relayed to the queue
+ * after commit by {@link com.gateway.workers.OutboxRelay}.
+ */
+@Data
+@Entity
+@Table(name = "job_outbox")
+public class OutboxJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "queue_name", nullable = false, length = 50)
+    private String queueName;
+
+    // Job encoded with JobCodec
+    @Column(nullable = false, columnDefinition = "BLOB")
+    private byte[] job;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
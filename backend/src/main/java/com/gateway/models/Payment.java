@@ -1,5 +1,6 @@
 package com.gateway.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import org.hibernate.annotations.CreationTimestamp;
@@ -7,6 +8,7 @@ import org.hibernate.annotations.UpdateTimestamp;
 
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
+import org.springframework.data.domain.Persistable;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
@@ -14,9 +16,11 @@ import java.util.UUID;
 @Entity
 @Table(name = "payments", indexes = {
     @Index(name = "idx_payments_order_id", columnList = "order_id"),
-    @Index(name = "idx_payments_status", columnList = "status")
+    @Index(name = "idx_payments_status", columnList = "status"),
+    @Index(name = "idx_payments_merchant_created", columnList = "merchant_id, created_at, id"),
+    @Index(name = "idx_payments_merchant_status_created", columnList = "merchant_id, status, created_at, id")
 })
-public class Payment {
+public class Payment implements Persistable<String> {
 
     @Id
     @Column(length = 64)
@@ -69,4 +73,22 @@ public class Payment {
     @UpdateTimestamp
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
+
+    // Ids are generated up front, so tell Spring Data whether the row exists instead of letting
+    // save() issue a SELECT to find out
+    @Transient
+    @JsonIgnore
+    private boolean persisted;
+
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
 }
@@ -0,0 +1,60 @@
+package com.gateway.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Payment and refund totals for one merchant, time bucket (hour or day) and combination of
+ * method, card network and currency. Maintained incrementally by {@link com.gateway.services.AnalyticsService}.
+ */
+@Data
+@Entity
+@Table(name = "payment_rollups")
+@IdClass(PaymentRollupId.class)
+public class PaymentRollup {
+
+    @Id
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(name = "merchant_id", columnDefinition = "VARCHAR(36)")
+    private UUID merchantId;
+
+    @Id
+    @Column(length = 5)
+    private String granularity; // "hour" or "day"
+
+    @Id
+    @Column(name = "bucket_start")
+    private LocalDateTime bucketStart;
+
+    @Id
+    @Column(length = 20)
+    private String method;
+
+    @Id
+    @Column(name = "card_network", length = 20)
+    private String cardNetwork; // Empty for non-card payments
+
+    @Id
+    @Column(length = 3)
+    private String currency;
+
+    @Column(name = "payment_count", nullable = false)
+    private long paymentCount;
+
+    @Column(name = "success_count", nullable = false)
+    private long successCount;
+
+    @Column(name = "success_amount", nullable = false)
+    private long successAmount;
+
+    @Column(name = "refund_count", nullable = false)
+    private long refundCount;
+
+    @Column(name = "refund_amount", nullable = false)
+    private long refundAmount;
+}
@@ -0,0 +1,21 @@
+package com.gateway.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentRollupId implements Serializable {
+    private UUID merchantId;
+    private String granularity;
+    private LocalDateTime bucketStart;
+    private String method;
+    private String cardNetwork;
+    private String currency;
+}
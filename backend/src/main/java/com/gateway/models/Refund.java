@@ -1,10 +1,12 @@
 package com.gateway.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
+import org.springframework.data.domain.Persistable;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -12,9 +14,11 @@ import java.util.UUID;
 @Data
 @Entity
 @Table(name = "refunds", indexes = {
-    @Index(name = "idx_refunds_payment_id", columnList = "payment_id")
+    @Index(name = "idx_refunds_payment_id", columnList = "payment_id"),
+    @Index(name = "idx_refunds_merchant_created", columnList = "merchant_id, created_at, id"),
+    @Index(name = "idx_refunds_merchant_status_created", columnList = "merchant_id, status, created_at, id")
 })
-public class Refund {
+public class Refund implements Persistable<String> {
 
     @Id
     @Column(length = 64)
@@ -42,4 +46,21 @@ public class Refund {
 
     @Column(name = "processed_at")
     private LocalDateTime processedAt;
+
+    // Assigned id: report new/existing ourselves so save() inserts without a lookup first
+    @Transient
+    @JsonIgnore
+    private boolean persisted;
+
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
 }
@@ -0,0 +1,25 @@
+package com.gateway.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marker of a one-time startup task (backfill or data migration) that has completed, written by
+ * {@link com.gateway.services.StartupTasks}.
+ */
+@Data
+@Entity
+@Table(name = "startup_tasks")
+public class StartupTask {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @CreationTimestamp
+    @Column(name = "completed_at", updatable = false)
+    private LocalDateTime completedAt;
+}
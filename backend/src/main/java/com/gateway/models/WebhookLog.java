@@ -1,5 +1,6 @@
 package com.gateway.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import org.hibernate.annotations.CreationTimestamp;
@@ -15,7 +16,9 @@ import java.util.UUID;
 @Table(name = "webhook_logs", indexes = {
     @Index(name = "idx_webhook_logs_merchant_id", columnList = "merchant_id"),
     @Index(name = "idx_webhook_logs_status", columnList = "status"),
-    @Index(name = "idx_webhook_logs_next_retry", columnList = "next_retry_at")
+    @Index(name = "idx_webhook_logs_next_retry", columnList = "next_retry_at"),
+    @Index(name = "idx_webhook_logs_merchant_created", columnList = "merchant_id, created_at, id"),
+    @Index(name = "idx_webhook_logs_merchant_status_created", columnList = "merchant_id, status, created_at, id")
 })
 public class WebhookLog {
 
@@ -36,6 +39,11 @@ public class WebhookLog {
     @Column(nullable = false, columnDefinition = "json")
     private Map<String, Object> payload;
 
+    // Exact bytes sent (and signed) on every attempt; the JSON column above may be reformatted by MySQL
+    @JsonIgnore
+    @Column(columnDefinition = "MEDIUMBLOB")
+    private byte[] body;
+
     @Column(length = 20)
     private String status = "pending";
 
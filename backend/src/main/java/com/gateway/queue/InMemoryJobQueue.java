@@ -0,0 +1,214 @@
+package com.gateway.queue;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single-JVM backend for tests and local runs where the API and the workers share one process.
+ * Jobs are kept as objects and never serialized. Like the Redis backends, a job that fails
+ * {@code app.worker.max-attempts} times is moved to the queue's dead-letter list.
+ */
+@Component
+@ConditionalOnProperty(name = "app.queue.backend", havingValue = "memory")
+public class InMemoryJobQueue implements JobQueue {
+
+    private final Map<String, LinkedBlockingDeque<Object>> queues = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Lease>> leases = new ConcurrentHashMap<>();
+    private final Map<String, DelayQueue<DelayedJob>> delayed = new ConcurrentHashMap<>();
+    private final Map<String, Map<Object, Integer>> attempts = new ConcurrentHashMap<>();
+    private final Map<String, LinkedBlockingDeque<Object>> deadLetters = new ConcurrentHashMap<>();
+    private final AtomicLong deliveries = new AtomicLong();
+
+    private final JobCodec jobCodec;
+
+    @Value("${app.worker.visibility-timeout-ms:60000}")
+    private long visibilityTimeoutMs;
+
+    @Value("${app.worker.max-attempts:10}")
+    private int maxAttempts;
+
+    public InMemoryJobQueue(JobCodec jobCodec) {
+        this.jobCodec = jobCodec;
+    }
+
+    private static class Lease {
+        final Map<Long, Object> held = new ConcurrentHashMap<>();
+        volatile long expiresAt;
+    }
+
+    private record DelayedJob(Object job, long dueAt) implements Delayed {
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueAt - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueAt, ((DelayedJob) other).dueAt);
+        }
+    }
+
+    @Override
+    public void enqueue(String queue, Object job) {
+        queue(queue).addLast(job);
+    }
+
+    @Override
+    public void enqueueAll(String queue, List<?> jobs) {
+        queue(queue).addAll(jobs);
+    }
+
+    @Override
+    public void enqueueAllEncoded(String queue, List<byte[]> encodedJobs) {
+        encodedJobs.forEach(encoded -> queue(queue).addLast(jobCodec.decode(encoded)));
+    }
+
+    @Override
+    public void enqueueAt(String queue, Object job, Instant dueAt) {
+        delayed(queue).add(new DelayedJob(job, dueAt.toEpochMilli()));
+    }
+
+    @Override
+    public long promoteDue(String queue, int max) {
+        long promoted = 0;
+        DelayedJob due;
+        while (promoted < max && (due = delayed(queue).poll()) != null) {
+            queue(queue).addLast(due.job());
+            promoted++;
+        }
+        return promoted;
+    }
+
+    @Override
+    public List<QueuedJob> take(String queue, String consumerId, int max, Duration timeout) {
+        List<Object> taken = new ArrayList<>(max);
+        try {
+            Object first = queue(queue).pollFirst(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            if (first == null) return List.of();
+            taken.add(first);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return List.of();
+        }
+        queue(queue).drainTo(taken, max - 1);
+
+        Lease lease = lease(queue, consumerId);
+        List<QueuedJob> jobs = new ArrayList<>(taken.size());
+        for (Object job : taken) {
+            long receipt = deliveries.incrementAndGet();
+            lease.held.put(receipt, job);
+            jobs.add(new QueuedJob(job, receipt));
+        }
+        return jobs;
+    }
+
+    @Override
+    public void ack(String queue, String consumerId, List<QueuedJob> jobs) {
+        Lease lease = lease(queue, consumerId);
+        jobs.forEach(job -> {
+            lease.held.remove((Long) job.getReceipt());
+            attempts(queue).remove(job.getJob());
+        });
+    }
+
+    @Override
+    public void nack(String queue, String consumerId, QueuedJob job) {
+        if (lease(queue, consumerId).held.remove((Long) job.getReceipt()) == null) return;
+        if (attempts(queue).merge(job.getJob(), 1, Integer::sum) >= maxAttempts) {
+            attempts(queue).remove(job.getJob());
+            deadLetters.computeIfAbsent(queue, q -> new LinkedBlockingDeque<>()).addLast(job.getJob());
+        } else {
+            queue(queue).addLast(job.getJob());
+        }
+    }
+
+    @Override
+    public void renewLease(String queue, String consumerId) {
+        lease(queue, consumerId).expiresAt = System.currentTimeMillis() + visibilityTimeoutMs;
+    }
+
+    @Override
+    public long reclaimExpired(String queue) {
+        long now = System.currentTimeMillis();
+        long requeued = 0;
+        for (Map.Entry<String, Lease> entry : leases(queue).entrySet()) {
+            if (entry.getValue().expiresAt < now) {
+                requeued += requeue(queue, entry.getKey());
+            }
+        }
+        return requeued;
+    }
+
+    @Override
+    public void release(String queue, String consumerId) {
+        requeue(queue, consumerId);
+    }
+
+    @Override
+    public long size(String queue) {
+        return queue(queue).size();
+    }
+
+    @Override
+    public long delayedSize(String queue) {
+        return delayed(queue).size();
+    }
+
+    @Override
+    public long deadLetterSize(String queue) {
+        LinkedBlockingDeque<Object> dead = deadLetters.get(queue);
+        return dead != null ? dead.size() : 0;
+    }
+
+    @Override
+    public Map<String, Long> pendingByConsumer(String queue) {
+        Map<String, Long> pending = new HashMap<>();
+        leases(queue).forEach((consumerId, lease) -> pending.put(consumerId, (long) lease.held.size()));
+        return pending;
+    }
+
+    private long requeue(String queue, String consumerId) {
+        Lease lease = leases(queue).remove(consumerId);
+        if (lease == null) return 0;
+        lease.held.values().forEach(queue(queue)::addFirst);
+        return lease.held.size();
+    }
+
+    private LinkedBlockingDeque<Object> queue(String queue) {
+        return queues.computeIfAbsent(queue, q -> new LinkedBlockingDeque<>());
+    }
+
+    private DelayQueue<DelayedJob> delayed(String queue) {
+        return delayed.computeIfAbsent(queue, q -> new DelayQueue<>());
+    }
+
+    private Map<Object, Integer> attempts(String queue) {
+        return attempts.computeIfAbsent(queue, q -> new ConcurrentHashMap<>());
+    }
+
+    private Map<String, Lease> leases(String queue) {
+        return leases.computeIfAbsent(queue, q -> new ConcurrentHashMap<>());
+    }
+
+    private Lease lease(String queue, String consumerId) {
+        return leases(queue).computeIfAbsent(consumerId, c -> {
+            Lease lease = new Lease();
+            lease.expiresAt = System.currentTimeMillis() + visibilityTimeoutMs;
+            return lease;
+        });
+    }
+}
@@ -0,0 +1,165 @@
+package com.gateway.queue;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gateway.jobs.DeliverWebhookJob;
+import com.gateway.jobs.ProcessPaymentJob;
+import com.gateway.jobs.ProcessRefundJob;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Compact binary encoding for queued jobs.
+ *
+ * Every job starts with a type tag and that type's schema version, followed by its fields in a
+ * fixed order (strings and byte arrays length-prefixed, -1 for null). Versions are per type, so a
+ * layout change to one job only bumps that job's version. Decoding goes straight into the job
+ * class, without the {@code @class} metadata and second mapping pass of the generic JSON format.
+ *
+ * Entries written in the previous GenericJackson2Json format (which start with '{' or '[') are
+ * still decoded, so queues can be switched over with jobs in flight.
+ */
+@Component
+@RequiredArgsConstructor
+public class JobCodec {
+
+    private static final byte PAYMENT_JOB = 1;
+    private static final byte REFUND_JOB = 2;
+    private static final byte WEBHOOK_JOB = 3;
+
+    private static final byte PAYMENT_VERSION = 1;
+    private static final byte REFUND_VERSION = 1;
+    private static final byte WEBHOOK_VERSION = 1;
+
+    private static final TypeReference<Map<String, Object>> PAYLOAD_TYPE = new TypeReference<>() {};
+
+    private final ObjectMapper objectMapper;
+    private final GenericJackson2JsonRedisSerializer legacySerializer = new GenericJackson2JsonRedisSerializer();
+
+    public byte[] encode(Object job) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            if (job instanceof ProcessPaymentJob payment) {
+                out.writeByte(PAYMENT_JOB);
+                out.writeByte(PAYMENT_VERSION);
+                writeString(out, payment.getPaymentId());
+                writeString(out, payment.getIdempotencyKey());
+            } else if (job instanceof ProcessRefundJob refund) {
+                out.writeByte(REFUND_JOB);
+                out.writeByte(REFUND_VERSION);
+                writeString(out, refund.getRefundId());
+            } else if (job instanceof DeliverWebhookJob webhook) {
+                out.writeByte(WEBHOOK_JOB);
+                out.writeByte(WEBHOOK_VERSION);
+                writeUuid(out, webhook.getWebhookLogId());
+                writeUuid(out, webhook.getMerchantId());
+                writeString(out, webhook.getEventType());
+                // The body already is the payload's JSON, so the map is only written for jobs without one
+                boolean hasBody = webhook.getBody() != null;
+                writeBytes(out, !hasBody && webhook.getPayload() != null ? objectMapper.writeValueAsBytes(webhook.getPayload()) : null);
+                writeUuid(out, webhook.getExistingLogId());
+                out.writeInt(webhook.getAttemptNumber());
+                writeBytes(out, webhook.getBody());
+                out.writeLong(webhook.getParkDeadline());
+            } else {
+                throw new SerializationException("Unsupported job type: " + (job != null ? job.getClass().getName() : null));
+            }
+        } catch (IOException e) {
+            throw new SerializationException("Failed to encode job", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public Object decode(byte[] raw) {
+        if (raw == null || raw.length == 0) return null;
+        if (raw[0] == '{' || raw[0] == '[') {
+            return legacySerializer.deserialize(raw);
+        }
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw))) {
+            byte type = in.readByte();
+            byte version = in.readByte();
+
+            switch (type) {
+                case PAYMENT_JOB:
+                    checkVersion(type, version, PAYMENT_VERSION);
+                    return new ProcessPaymentJob(readString(in), readString(in));
+                case REFUND_JOB:
+                    checkVersion(type, version, REFUND_VERSION);
+                    return new ProcessRefundJob(readString(in));
+                case WEBHOOK_JOB:
+                    checkVersion(type, version, WEBHOOK_VERSION);
+                    DeliverWebhookJob webhook = new DeliverWebhookJob();
+                    webhook.setWebhookLogId(readUuid(in));
+                    webhook.setMerchantId(readUuid(in));
+                    webhook.setEventType(readString(in));
+                    byte[] payload = readBytes(in);
+                    webhook.setPayload(payload != null ? objectMapper.readValue(payload, PAYLOAD_TYPE) : null);
+                    webhook.setExistingLogId(readUuid(in));
+                    webhook.setAttemptNumber(in.readInt());
+                    webhook.setBody(readBytes(in));
+                    webhook.setParkDeadline(in.readLong());
+                    return webhook;
+                default:
+                    throw new SerializationException("Unknown job type " + type);
+            }
+        } catch (IOException e) {
+            throw new SerializationException("Failed to decode job", e);
+        }
+    }
+
+    private static void checkVersion(byte type, byte version, byte latest) {
+        if (version < 1 || version > latest) {
+            throw new SerializationException("Unsupported version " + version + " for job type " + type);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        writeBytes(out, value != null ? value.getBytes(StandardCharsets.UTF_8) : null);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = readBytes(in);
+        return bytes != null ? new String(bytes, StandardCharsets.UTF_8) : null;
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(value.length);
+        out.write(value);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.getMostSignificantBits());
+            out.writeLong(value.getLeastSignificantBits());
+        }
+    }
+
+    private static UUID readUuid(DataInputStream in) throws IOException {
+        return in.readBoolean() ? new UUID(in.readLong(), in.readLong()) : null;
+    }
+}
@@ -0,0 +1,72 @@
+package com.gateway.queue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reliable job queue used by {@link com.gateway.services.JobService} to publish jobs and by the
+ * workers to consume them.
+ *
+ * Jobs taken by a consumer stay leased to it until they are acked. Leases that are not renewed
+ * within the visibility timeout ({@code app.worker.visibility-timeout-ms}) are reclaimed and the
+ * jobs delivered again, so delivery is at-least-once.
+ *
+ * The backend is selected with {@code app.queue.backend}: {@code list} (Redis lists, default),
+ * {@code stream} (Redis Streams consumer groups) or {@code memory} (single JVM, for tests).
+ */
+public interface JobQueue {
+
+    void enqueue(String queue, Object job);
+
+    void enqueueAll(String queue, List<?> jobs);
+
+    /** Enqueues jobs that are already encoded with {@link JobCodec}, such as those stored in the outbox. */
+    void enqueueAllEncoded(String queue, List<byte[]> encodedJobs);
+
+    /** Adds a job that only becomes available to consumers once {@code dueAt} has passed. */
+    void enqueueAt(String queue, Object job, Instant dueAt);
+
+    /**
+     * Atomically moves up to {@code max} delayed jobs that are due onto the queue.
+     * Returns the number of jobs moved.
+     */
+    long promoteDue(String queue, int max);
+
+    /**
+     * Takes up to {@code max} jobs, blocking for at most {@code timeout} when the queue is empty.
+     * Returns an empty list on timeout. Entries that cannot be decoded are moved to the queue's
+     * dead-letter list instead of being returned.
+     */
+    List<QueuedJob> take(String queue, String consumerId, int max, Duration timeout);
+
+    void ack(String queue, String consumerId, List<QueuedJob> jobs);
+
+    /**
+     * Returns a job that failed processing to the tail of the queue, or moves it to the queue's
+     * dead-letter list once it has failed {@code app.worker.max-attempts} times.
+     */
+    void nack(String queue, String consumerId, QueuedJob job);
+
+    /** Extends the lease on everything the consumer currently holds. */
+    void renewLease(String queue, String consumerId);
+
+    /** Requeues jobs whose lease has expired. Returns the number of jobs requeued. */
+    long reclaimExpired(String queue);
+
+    /** Requeues anything the consumer still holds and forgets the consumer. */
+    void release(String queue, String consumerId);
+
+    /** Jobs waiting to be taken. */
+    long size(String queue);
+
+    /** Delayed jobs that are not yet due. */
+    long delayedSize(String queue);
+
+    /** Jobs set aside because they could not be decoded or kept failing. */
+    long deadLetterSize(String queue);
+
+    /** Jobs taken but not yet acked, per consumer. */
+    Map<String, Long> pendingByConsumer(String queue);
+}
@@ -0,0 +1,15 @@
+package com.gateway.queue;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A job handed out by {@link JobQueue#take}. The receipt is backend specific (raw list element,
+ * stream record, ...) and identifies the delivery when acking.
+ */
+@Getter
+@AllArgsConstructor
+public class QueuedJob {
+    private final Object job;
+    private final Object receipt;
+}
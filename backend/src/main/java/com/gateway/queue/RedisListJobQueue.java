@@ -0,0 +1,317 @@
+package com.gateway.queue;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisListCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Redis list backend.
+ *
+ * Jobs are atomically moved (LMOVE) from the queue into a per-consumer processing list and
+ * removed from it on ack. Every consumer holds a lease in the queue's consumer set
+ * (score = lease expiry); the processing list of an expired consumer is pushed back onto the queue.
+ * Delayed jobs wait in a sorted set scored by due time until they are promoted onto the queue.
+ *
+ * Nacks are counted per job in a hash; a job that fails {@code app.worker.max-attempts} times, or
+ * cannot be decoded, is moved to the queue's dead-letter list instead of being handed out again.
+ */
+@Component
+@ConditionalOnProperty(name = "app.queue.backend", havingValue = "list", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class RedisListJobQueue implements JobQueue {
+
+    // Move up to ARGV[1] jobs into the processing list in one round trip
+    private static final byte[] TAKE_BATCH_SCRIPT = (
+            "local jobs = {} " +
+            "for i = 1, tonumber(ARGV[1]) do " +
+            "  local job = redis.call('LMOVE', KEYS[1], KEYS[2], 'LEFT', 'RIGHT') " +
+            "  if not job then break end " +
+            "  jobs[#jobs + 1] = job " +
+            "end " +
+            "return jobs").getBytes(StandardCharsets.UTF_8);
+
+    // KEYS: processing list, queue, attempts hash, dead-letter list. ARGV: job, max attempts.
+    // Puts a failed job back at the tail of the queue, or dead-letters it on its last attempt.
+    // Returns the attempts so far, -1 if dead-lettered, or 0 if the job is no longer held.
+    private static final byte[] NACK_SCRIPT = (
+            "if redis.call('LREM', KEYS[1], 1, ARGV[1]) == 0 then return 0 end " +
+            "local attempts = redis.call('HINCRBY', KEYS[3], ARGV[1], 1) " +
+            "if attempts >= tonumber(ARGV[2]) then " +
+            "  redis.call('HDEL', KEYS[3], ARGV[1]) " +
+            "  redis.call('RPUSH', KEYS[4], ARGV[1]) " +
+            "  return -1 " +
+            "end " +
+            "redis.call('RPUSH', KEYS[2], ARGV[1]) " +
+            "return attempts").getBytes(StandardCharsets.UTF_8);
+
+    // KEYS: processing list, dead-letter list. ARGV: jobs. Moves held jobs to the dead-letter list.
+    private static final byte[] DEAD_LETTER_SCRIPT = (
+            "for i = 1, #ARGV do " +
+            "  if redis.call('LREM', KEYS[1], 1, ARGV[i]) > 0 then redis.call('RPUSH', KEYS[2], ARGV[i]) end " +
+            "end " +
+            "return #ARGV").getBytes(StandardCharsets.UTF_8);
+
+    // KEYS: queue, processing list, consumer set. ARGV: consumer id, expired-before timestamp.
+    // Returns the number of jobs requeued, or -1 if the lease was renewed in the meantime.
+    private static final byte[] REQUEUE_SCRIPT = (
+            "local score = redis.call('ZSCORE', KEYS[3], ARGV[1]) " +
+            "if score and tonumber(score) > tonumber(ARGV[2]) then return -1 end " +
+            "local n = 0 " +
+            "while redis.call('LMOVE', KEYS[2], KEYS[1], 'RIGHT', 'LEFT') do n = n + 1 end " +
+            "redis.call('ZREM', KEYS[3], ARGV[1]) " +
+            "return n").getBytes(StandardCharsets.UTF_8);
+
+    // KEYS: delayed set, queue. ARGV: now, max. Moves due jobs onto the queue in one step.
+    private static final byte[] PROMOTE_SCRIPT = (
+            "local due = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, tonumber(ARGV[2])) " +
+            "if #due == 0 then return 0 end " +
+            "redis.call('RPUSH', KEYS[2], unpack(due)) " +
+            "redis.call('ZREM', KEYS[1], unpack(due)) " +
+            "return #due").getBytes(StandardCharsets.UTF_8);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final JobCodec jobCodec;
+
+    @Value("${app.worker.visibility-timeout-ms:60000}")
+    private long visibilityTimeoutMs;
+
+    @Value("${app.worker.max-attempts:10}")
+    private int maxAttempts;
+
+    public static String processingListFor(String queue, String consumerId) {
+        return queue + ":processing:" + consumerId;
+    }
+
+    public static String consumersKeyFor(String queue) {
+        return queue + ":consumers";
+    }
+
+    public static String delayedKeyFor(String queue) {
+        return queue + ":delayed";
+    }
+
+    public static String attemptsKeyFor(String queue) {
+        return queue + ":attempts";
+    }
+
+    public static String deadLetterKeyFor(String queue) {
+        return queue + ":dead";
+    }
+
+    @Override
+    public void enqueue(String queue, Object job) {
+        byte[] key = rawKey(queue);
+        byte[] value = jobCodec.encode(job);
+        redisTemplate.execute((RedisCallback<Long>) connection -> connection.listCommands().rPush(key, value));
+    }
+
+    @Override
+    public void enqueueAll(String queue, List<?> jobs) {
+        enqueueAllEncoded(queue, jobs.stream().map(jobCodec::encode).toList());
+    }
+
+    @Override
+    public void enqueueAllEncoded(String queue, List<byte[]> encodedJobs) {
+        if (encodedJobs.isEmpty()) return;
+        byte[] key = rawKey(queue);
+        byte[][] values = encodedJobs.toArray(byte[][]::new);
+        // Single multi-value RPUSH instead of one round trip per job
+        redisTemplate.execute((RedisCallback<Long>) connection -> connection.listCommands().rPush(key, values));
+    }
+
+    @Override
+    public void enqueueAt(String queue, Object job, Instant dueAt) {
+        byte[] key = rawKey(delayedKeyFor(queue));
+        byte[] value = jobCodec.encode(job);
+        redisTemplate.execute((RedisCallback<Boolean>) connection ->
+                connection.zSetCommands().zAdd(key, dueAt.toEpochMilli(), value));
+    }
+
+    @Override
+    public long promoteDue(String queue, int max) {
+        byte[][] keysAndArgs = {
+                rawKey(delayedKeyFor(queue)), rawKey(queue),
+                rawKey(String.valueOf(System.currentTimeMillis())), rawKey(String.valueOf(max))
+        };
+        Long promoted = redisTemplate.execute((RedisCallback<Long>) connection -> connection.scriptingCommands().eval(
+                PROMOTE_SCRIPT, ReturnType.INTEGER, 2, keysAndArgs));
+        return promoted != null ? promoted : 0;
+    }
+
+    @Override
+    public List<QueuedJob> take(String queue, String consumerId, int max, Duration timeout) {
+        byte[] source = rawKey(queue);
+        byte[] destination = rawKey(processingListFor(queue, consumerId));
+
+        List<byte[]> batch = null;
+        if (max > 1) {
+            batch = redisTemplate.execute((RedisCallback<List<byte[]>>) connection -> connection.scriptingCommands().eval(
+                    TAKE_BATCH_SCRIPT, ReturnType.MULTI, 2, source, destination, rawKey(String.valueOf(max))));
+        }
+
+        if (batch == null || batch.isEmpty()) {
+            // Queue is empty (or batching is off): block for the next job
+            byte[] raw = redisTemplate.execute((RedisCallback<byte[]>) connection -> connection.listCommands().bLMove(
+                    source, destination,
+                    RedisListCommands.Direction.LEFT, RedisListCommands.Direction.RIGHT,
+                    timeout.toMillis() / 1000.0));
+            batch = raw != null ? List.of(raw) : List.of();
+        }
+
+        // Decoded one by one, so a corrupt entry or one from a newer release does not hold up the rest
+        List<QueuedJob> jobs = new ArrayList<>(batch.size());
+        List<byte[]> undecodable = new ArrayList<>();
+        for (byte[] raw : batch) {
+            try {
+                jobs.add(new QueuedJob(jobCodec.decode(raw), raw));
+            } catch (SerializationException e) {
+                log.error("Moving undecodable job on {} to the dead-letter list", queue, e);
+                undecodable.add(raw);
+            }
+        }
+        if (!undecodable.isEmpty()) {
+            byte[][] keysAndArgs = new byte[2 + undecodable.size()][];
+            keysAndArgs[0] = destination;
+            keysAndArgs[1] = rawKey(deadLetterKeyFor(queue));
+            for (int i = 0; i < undecodable.size(); i++) {
+                keysAndArgs[2 + i] = undecodable.get(i);
+            }
+            redisTemplate.execute((RedisCallback<Long>) connection -> connection.scriptingCommands().eval(
+                    DEAD_LETTER_SCRIPT, ReturnType.INTEGER, 2, keysAndArgs));
+        }
+        return jobs;
+    }
+
+    @Override
+    public void ack(String queue, String consumerId, List<QueuedJob> jobs) {
+        byte[] key = rawKey(processingListFor(queue, consumerId));
+        byte[] attemptsKey = rawKey(attemptsKeyFor(queue));
+        byte[][] raws = jobs.stream().map(job -> (byte[]) job.getReceipt()).toArray(byte[][]::new);
+        // The attempt counts of jobs that were never nacked are absent, so the HDEL is a no-op for most batches
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (byte[] raw : raws) {
+                connection.listCommands().lRem(key, 1, raw);
+            }
+            connection.hashCommands().hDel(attemptsKey, raws);
+            return null;
+        });
+    }
+
+    @Override
+    public void nack(String queue, String consumerId, QueuedJob job) {
+        byte[][] keysAndArgs = {
+                rawKey(processingListFor(queue, consumerId)), rawKey(queue),
+                rawKey(attemptsKeyFor(queue)), rawKey(deadLetterKeyFor(queue)),
+                (byte[]) job.getReceipt(), rawKey(String.valueOf(maxAttempts))
+        };
+        Long attempts = redisTemplate.execute((RedisCallback<Long>) connection -> connection.scriptingCommands().eval(
+                NACK_SCRIPT, ReturnType.INTEGER, 4, keysAndArgs));
+        if (attempts != null && attempts < 0) {
+            log.error("Job on {} failed {} times; moved to the dead-letter list", queue, maxAttempts);
+        }
+    }
+
+    @Override
+    public void renewLease(String queue, String consumerId) {
+        byte[] key = rawKey(consumersKeyFor(queue));
+        byte[] member = rawKey(consumerId);
+        long expiresAt = System.currentTimeMillis() + visibilityTimeoutMs;
+        redisTemplate.execute((RedisCallback<Boolean>) connection -> connection.zSetCommands().zAdd(key, expiresAt, member));
+    }
+
+    @Override
+    public long reclaimExpired(String queue) {
+        long now = System.currentTimeMillis();
+        byte[] key = rawKey(consumersKeyFor(queue));
+        Set<byte[]> expired = redisTemplate.execute((RedisCallback<Set<byte[]>>) connection ->
+                connection.zSetCommands().zRangeByScore(key, 0, now));
+        if (expired == null) return 0;
+
+        long total = 0;
+        for (byte[] member : expired) {
+            String consumerId = new String(member, StandardCharsets.UTF_8);
+            long requeued = requeue(queue, consumerId, now);
+            if (requeued >= 0) {
+                log.warn("Lease of consumer {} on {} expired, requeued {} job(s)", consumerId, queue, requeued);
+                total += requeued;
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public void release(String queue, String consumerId) {
+        // Anything still held goes back to the head of the queue before the lease is dropped
+        requeue(queue, consumerId, Long.MAX_VALUE);
+    }
+
+    @Override
+    public long size(String queue) {
+        Long size = redisTemplate.opsForList().size(queue);
+        return size != null ? size : 0;
+    }
+
+    @Override
+    public long delayedSize(String queue) {
+        Long size = redisTemplate.opsForZSet().zCard(delayedKeyFor(queue));
+        return size != null ? size : 0;
+    }
+
+    @Override
+    public long deadLetterSize(String queue) {
+        Long size = redisTemplate.opsForList().size(deadLetterKeyFor(queue));
+        return size != null ? size : 0;
+    }
+
+    @Override
+    public Map<String, Long> pendingByConsumer(String queue) {
+        byte[] key = rawKey(consumersKeyFor(queue));
+        Set<byte[]> consumers = redisTemplate.execute((RedisCallback<Set<byte[]>>) connection ->
+                connection.zSetCommands().zRange(key, 0, -1));
+
+        Map<String, Long> pending = new HashMap<>();
+        if (consumers == null) return pending;
+        for (byte[] member : consumers) {
+            String consumerId = new String(member, StandardCharsets.UTF_8);
+            Long held = redisTemplate.opsForList().size(processingListFor(queue, consumerId));
+            pending.put(consumerId, held != null ? held : 0);
+        }
+        return pending;
+    }
+
+    /**
+     * Atomically moves everything in the consumer's processing list back to the head of the queue
+     * and drops its lease, unless the lease was renewed past {@code expiredBefore}.
+     */
+    private long requeue(String queue, String consumerId, long expiredBefore) {
+        byte[][] keysAndArgs = {
+                rawKey(queue), rawKey(processingListFor(queue, consumerId)), rawKey(consumersKeyFor(queue)),
+                rawKey(consumerId), rawKey(String.valueOf(expiredBefore))
+        };
+        Long result = redisTemplate.execute((RedisCallback<Long>) connection -> connection.scriptingCommands().eval(
+                REQUEUE_SCRIPT, ReturnType.INTEGER, 3, keysAndArgs));
+        return result != null ? result : 0;
+    }
+
+    private static byte[] rawKey(String key) {
+        return RedisSerializer.string().serialize(key);
+    }
+}
@@ -0,0 +1,409 @@
+package com.gateway.queue;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.RedisStreamCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.stream.ByteRecord;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.PendingMessagesSummary;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Redis Streams backend. Each queue is a stream read through one consumer group, so any number of
+ * worker nodes share it and Redis tracks the pending entries of every consumer.
+ *
+ * Entries are XACKed and XDELed on ack. Entries that stay pending longer than the visibility
+ * timeout are claimed (XCLAIM with a min-idle guard, as Spring Data Redis does not expose
+ * XAUTOCLAIM) and re-added to the stream in one script, paging through the whole pending entries
+ * list. Delayed jobs wait in a sorted set scored by due time until they are promoted onto the
+ * stream.
+ *
+ * Nacks are counted per job in a hash; a job that fails {@code app.worker.max-attempts} times, or
+ * cannot be decoded, is moved to the queue's dead-letter list instead of being delivered again.
+ */
+@Component
+@ConditionalOnProperty(name = "app.queue.backend", havingValue = "stream")
+@RequiredArgsConstructor
+@Slf4j
+public class RedisStreamJobQueue implements JobQueue {
+
+    private static final String GROUP = "workers";
+    private static final String RECLAIMER = "reclaimer";
+    private static final byte[] JOB_FIELD = "job".getBytes(StandardCharsets.UTF_8);
+    private static final int PENDING_PAGE_SIZE = 1000;
+
+    // KEYS: stream. ARGV: group, claiming consumer, min idle ms, ids. Claims the entries that are
+    // still idle for at least min idle and re-adds them as new entries, so a job is never both
+    // re-added and left pending, nor dropped. Entries acked meanwhile are gone and not re-added.
+    private static final byte[] REQUEUE_SCRIPT = (
+            "local claimed = redis.call('XCLAIM', KEYS[1], ARGV[1], ARGV[2], ARGV[3], unpack(ARGV, 4)) " +
+            "local n = 0 " +
+            "for _, entry in ipairs(claimed) do " +
+            "  if entry and entry[2] then " +
+            "    redis.call('XADD', KEYS[1], '*', unpack(entry[2])) " +
+            "    redis.call('XACK', KEYS[1], ARGV[1], entry[1]) " +
+            "    redis.call('XDEL', KEYS[1], entry[1]) " +
+            "    n = n + 1 " +
+            "  end " +
+            "end " +
+            "return n").getBytes(StandardCharsets.UTF_8);
+
+    // KEYS: stream, attempts hash, dead-letter list. ARGV: group, id, max attempts. Re-adds a failed
+    // entry as a new one, or dead-letters it on its last attempt. Returns the attempts so far, -1 if
+    // dead-lettered, or 0 if the entry is gone (acked or requeued meanwhile).
+    private static final byte[] NACK_SCRIPT = (
+            "local entry = redis.call('XRANGE', KEYS[1], ARGV[2], ARGV[2])[1] " +
+            "if not entry then return 0 end " +
+            "local job = entry[2][2] " +
+            "local attempts = redis.call('HINCRBY', KEYS[2], job, 1) " +
+            "redis.call('XACK', KEYS[1], ARGV[1], ARGV[2]) " +
+            "redis.call('XDEL', KEYS[1], ARGV[2]) " +
+            "if attempts >= tonumber(ARGV[3]) then " +
+            "  redis.call('HDEL', KEYS[2], job) " +
+            "  redis.call('RPUSH', KEYS[3], job) " +
+            "  return -1 " +
+            "end " +
+            "redis.call('XADD', KEYS[1], '*', unpack(entry[2])) " +
+            "return attempts").getBytes(StandardCharsets.UTF_8);
+
+    // KEYS: stream, dead-letter list. ARGV: group, then id and job pairs. Moves entries to the dead-letter list.
+    private static final byte[] DEAD_LETTER_SCRIPT = (
+            "for i = 2, #ARGV, 2 do " +
+            "  if redis.call('XACK', KEYS[1], ARGV[1], ARGV[i]) > 0 then " +
+            "    redis.call('XDEL', KEYS[1], ARGV[i]) " +
+            "    redis.call('RPUSH', KEYS[2], ARGV[i + 1]) " +
+            "  end " +
+            "end " +
+            "return 0").getBytes(StandardCharsets.UTF_8);
+
+    // KEYS: delayed set, stream. ARGV: now, max. Moves due jobs onto the stream in one step.
+    private static final byte[] PROMOTE_SCRIPT = (
+            "local due = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, tonumber(ARGV[2])) " +
+            "if #due == 0 then return 0 end " +
+            "for _, job in ipairs(due) do redis.call('XADD', KEYS[2], '*', 'job', job) end " +
+            "redis.call('ZREM', KEYS[1], unpack(due)) " +
+            "return #due").getBytes(StandardCharsets.UTF_8);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final JobCodec jobCodec;
+    private final Set<String> knownGroups = ConcurrentHashMap.newKeySet();
+
+    @Value("${app.worker.visibility-timeout-ms:60000}")
+    private long visibilityTimeoutMs;
+
+    @Value("${app.worker.max-attempts:10}")
+    private int maxAttempts;
+
+    public static String streamKeyFor(String queue) {
+        return queue + ":stream";
+    }
+
+    public static String delayedKeyFor(String queue) {
+        return queue + ":delayed";
+    }
+
+    public static String attemptsKeyFor(String queue) {
+        return queue + ":attempts";
+    }
+
+    public static String deadLetterKeyFor(String queue) {
+        return queue + ":dead";
+    }
+
+    @Override
+    public void enqueue(String queue, Object job) {
+        byte[] key = rawKey(streamKeyFor(queue));
+        byte[] value = jobCodec.encode(job);
+        redisTemplate.execute((RedisCallback<RecordId>) connection -> connection.streamCommands().xAdd(record(key, value)));
+    }
+
+    @Override
+    public void enqueueAll(String queue, List<?> jobs) {
+        enqueueAllEncoded(queue, jobs.stream().map(jobCodec::encode).toList());
+    }
+
+    @Override
+    public void enqueueAllEncoded(String queue, List<byte[]> encodedJobs) {
+        if (encodedJobs.isEmpty()) return;
+        byte[] key = rawKey(streamKeyFor(queue));
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (byte[] value : encodedJobs) {
+                connection.streamCommands().xAdd(record(key, value));
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void enqueueAt(String queue, Object job, Instant dueAt) {
+        byte[] key = rawKey(delayedKeyFor(queue));
+        byte[] value = jobCodec.encode(job);
+        redisTemplate.execute((RedisCallback<Boolean>) connection ->
+                connection.zSetCommands().zAdd(key, dueAt.toEpochMilli(), value));
+    }
+
+    @Override
+    public long promoteDue(String queue, int max) {
+        byte[][] keysAndArgs = {
+                rawKey(delayedKeyFor(queue)), rawKey(streamKeyFor(queue)),
+                rawKey(String.valueOf(System.currentTimeMillis())), rawKey(String.valueOf(max))
+        };
+        Long promoted = redisTemplate.execute((RedisCallback<Long>) connection -> connection.scriptingCommands().eval(
+                PROMOTE_SCRIPT, ReturnType.INTEGER, 2, keysAndArgs));
+        return promoted != null ? promoted : 0;
+    }
+
+    @Override
+    public List<QueuedJob> take(String queue, String consumerId, int max, Duration timeout) {
+        byte[] key = rawKey(streamKeyFor(queue));
+        List<ByteRecord> records = withGroup(queue, () -> redisTemplate.execute((RedisCallback<List<ByteRecord>>) connection ->
+                connection.streamCommands().xReadGroup(
+                        Consumer.from(GROUP, consumerId),
+                        StreamReadOptions.empty().count(max).block(timeout),
+                        StreamOffset.create(key, ReadOffset.lastConsumed()))));
+
+        List<QueuedJob> jobs = new ArrayList<>();
+        if (records == null) return jobs;
+        // Decoded one by one, so a corrupt entry or one from a newer release does not hold up the rest
+        List<ByteRecord> undecodable = new ArrayList<>();
+        for (ByteRecord record : records) {
+            try {
+                jobs.add(new QueuedJob(jobCodec.decode(valueOf(record)), record));
+            } catch (SerializationException e) {
+                log.error("Moving undecodable job {} on {} to the dead-letter list", record.getId(), queue, e);
+                undecodable.add(record);
+            }
+        }
+        if (!undecodable.isEmpty()) {
+            byte[][] keysAndArgs = new byte[3 + 2 * undecodable.size()][];
+            keysAndArgs[0] = key;
+            keysAndArgs[1] = rawKey(deadLetterKeyFor(queue));
+            keysAndArgs[2] = rawKey(GROUP);
+            for (int i = 0; i < undecodable.size(); i++) {
+                keysAndArgs[3 + 2 * i] = rawKey(undecodable.get(i).getId().getValue());
+                keysAndArgs[4 + 2 * i] = valueOf(undecodable.get(i));
+            }
+            withGroup(queue, () -> redisTemplate.execute((RedisCallback<Long>) connection -> connection.scriptingCommands().eval(
+                    DEAD_LETTER_SCRIPT, ReturnType.INTEGER, 2, keysAndArgs)));
+        }
+        return jobs;
+    }
+
+    @Override
+    public void ack(String queue, String consumerId, List<QueuedJob> jobs) {
+        byte[] key = rawKey(streamKeyFor(queue));
+        byte[] attemptsKey = rawKey(attemptsKeyFor(queue));
+        RecordId[] ids = jobs.stream().map(job -> ((ByteRecord) job.getReceipt()).getId()).toArray(RecordId[]::new);
+        byte[][] values = jobs.stream().map(job -> valueOf((ByteRecord) job.getReceipt())).toArray(byte[][]::new);
+        withGroup(queue, () -> redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.streamCommands().xAck(key, GROUP, ids);
+            connection.streamCommands().xDel(key, ids);
+            // The attempt counts of jobs that were never nacked are absent, so this is a no-op for most batches
+            connection.hashCommands().hDel(attemptsKey, values);
+            return null;
+        }));
+    }
+
+    @Override
+    public void nack(String queue, String consumerId, QueuedJob job) {
+        RecordId id = ((ByteRecord) job.getReceipt()).getId();
+        byte[][] keysAndArgs = {
+                rawKey(streamKeyFor(queue)), rawKey(attemptsKeyFor(queue)), rawKey(deadLetterKeyFor(queue)),
+                rawKey(GROUP), rawKey(id.getValue()), rawKey(String.valueOf(maxAttempts))
+        };
+        Long attempts = withGroup(queue, () -> redisTemplate.execute((RedisCallback<Long>) connection ->
+                connection.scriptingCommands().eval(NACK_SCRIPT, ReturnType.INTEGER, 3, keysAndArgs)));
+        if (attempts != null && attempts < 0) {
+            log.error("Job {} on {} failed {} times; moved to the dead-letter list", id, queue, maxAttempts);
+        }
+    }
+
+    @Override
+    public void renewLease(String queue, String consumerId) {
+        // Re-claiming our own pending entries resets their idle time
+        byte[] key = rawKey(streamKeyFor(queue));
+        withGroup(queue, () -> {
+            RecordId after = null;
+            PendingMessages page;
+            do {
+                page = pendingPage(queue, consumerId, after);
+                if (page.isEmpty()) break;
+                RecordId[] ids = page.stream().map(PendingMessage::getId).toArray(RecordId[]::new);
+                redisTemplate.execute((RedisCallback<List<RecordId>>) connection -> connection.streamCommands().xClaimJustId(
+                        key, GROUP, consumerId, RedisStreamCommands.XClaimOptions.minIdle(Duration.ZERO).ids(ids)));
+                after = ids[ids.length - 1];
+            } while (page.size() == PENDING_PAGE_SIZE);
+            return null;
+        });
+    }
+
+    @Override
+    public long reclaimExpired(String queue) {
+        Duration visibilityTimeout = Duration.ofMillis(visibilityTimeoutMs);
+        long requeued = withGroup(queue, () -> {
+            long total = 0;
+            RecordId after = null;
+            PendingMessages page;
+            do {
+                // Pages follow the last id seen, so expired entries behind fresh ones are reached too
+                page = pendingPage(queue, null, after);
+                if (page.isEmpty()) break;
+                RecordId[] expired = page.stream()
+                        .filter(message -> message.getElapsedTimeSinceLastDelivery().compareTo(visibilityTimeout) > 0)
+                        .map(PendingMessage::getId)
+                        .toArray(RecordId[]::new);
+                // The min-idle guard skips entries whose consumer renewed them meanwhile
+                if (expired.length > 0) {
+                    total += requeue(queue, visibilityTimeout, expired);
+                }
+                after = page.get(page.size() - 1).getId();
+            } while (page.size() == PENDING_PAGE_SIZE);
+            return total;
+        });
+        if (requeued > 0) {
+            log.warn("Requeued {} expired job(s) on {}", requeued, queue);
+        }
+        return requeued;
+    }
+
+    @Override
+    public void release(String queue, String consumerId) {
+        withGroup(queue, () -> {
+            PendingMessages page;
+            do {
+                // Requeued entries leave the consumer's pending list, so every page starts at the front
+                page = pendingPage(queue, consumerId, null);
+                if (page.isEmpty()) break;
+                requeue(queue, Duration.ZERO, page.stream().map(PendingMessage::getId).toArray(RecordId[]::new));
+            } while (page.size() == PENDING_PAGE_SIZE);
+            redisTemplate.opsForStream().deleteConsumer(streamKeyFor(queue), Consumer.from(GROUP, consumerId));
+            return null;
+        });
+    }
+
+    @Override
+    public long size(String queue) {
+        Long length = redisTemplate.opsForStream().size(streamKeyFor(queue));
+        if (length == null || length == 0) return 0;
+        // Acked entries are deleted, so whatever is not pending is still waiting
+        PendingMessagesSummary summary = withGroup(queue, () -> redisTemplate.opsForStream().pending(streamKeyFor(queue), GROUP));
+        return length - (summary != null ? summary.getTotalPendingMessages() : 0);
+    }
+
+    @Override
+    public long delayedSize(String queue) {
+        Long size = redisTemplate.opsForZSet().zCard(delayedKeyFor(queue));
+        return size != null ? size : 0;
+    }
+
+    @Override
+    public long deadLetterSize(String queue) {
+        Long size = redisTemplate.opsForList().size(deadLetterKeyFor(queue));
+        return size != null ? size : 0;
+    }
+
+    @Override
+    public Map<String, Long> pendingByConsumer(String queue) {
+        PendingMessagesSummary summary = withGroup(queue, () -> redisTemplate.opsForStream().pending(streamKeyFor(queue), GROUP));
+        return summary != null ? summary.getPendingMessagesPerConsumer() : new HashMap<>();
+    }
+
+    // Up to a page of the group's (or one consumer's) pending entries with ids after {@code after}
+    private PendingMessages pendingPage(String queue, String consumerId, RecordId after) {
+        // XPENDING ranges are inclusive, so the page starts at the next possible id
+        Range<String> range = after == null ? Range.unbounded()
+                : Range.rightUnbounded(Range.Bound.inclusive(after.getTimestamp() + "-" + (after.getSequence() + 1)));
+        return consumerId == null
+                ? redisTemplate.opsForStream().pending(streamKeyFor(queue), GROUP, range, PENDING_PAGE_SIZE)
+                : redisTemplate.opsForStream().pending(streamKeyFor(queue), Consumer.from(GROUP, consumerId), range, PENDING_PAGE_SIZE);
+    }
+
+    private long requeue(String queue, Duration minIdle, RecordId[] ids) {
+        byte[][] keysAndArgs = new byte[4 + ids.length][];
+        keysAndArgs[0] = rawKey(streamKeyFor(queue));
+        keysAndArgs[1] = rawKey(GROUP);
+        keysAndArgs[2] = rawKey(RECLAIMER);
+        keysAndArgs[3] = rawKey(String.valueOf(minIdle.toMillis()));
+        for (int i = 0; i < ids.length; i++) {
+            keysAndArgs[4 + i] = rawKey(ids[i].getValue());
+        }
+        Long requeued = redisTemplate.execute((RedisCallback<Long>) connection -> connection.scriptingCommands().eval(
+                REQUEUE_SCRIPT, ReturnType.INTEGER, 1, keysAndArgs));
+        return requeued != null ? requeued : 0;
+    }
+
+    // Runs a command that needs the consumer group. If the stream was deleted or flushed since the
+    // group was created, the cached entry is dropped and the group recreated before one retry.
+    private <T> T withGroup(String queue, Supplier<T> command) {
+        ensureGroup(queue);
+        try {
+            return command.get();
+        } catch (RuntimeException e) {
+            if (!hasError(e, "NOGROUP")) throw e;
+            log.warn("Consumer group of {} is gone; recreating it", queue);
+            knownGroups.remove(queue);
+            ensureGroup(queue);
+            return command.get();
+        }
+    }
+
+    private void ensureGroup(String queue) {
+        if (knownGroups.contains(queue)) return;
+        byte[] key = rawKey(streamKeyFor(queue));
+        try {
+            redisTemplate.execute((RedisCallback<String>) connection ->
+                    connection.streamCommands().xGroupCreate(key, GROUP, ReadOffset.from("0-0"), true));
+        } catch (RuntimeException e) {
+            // BUSYGROUP: another node created it first
+            if (!hasError(e, "BUSYGROUP")) throw e;
+        }
+        knownGroups.add(queue);
+    }
+
+    private static boolean hasError(Throwable e, String code) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t.getMessage() != null && t.getMessage().contains(code)) return true;
+        }
+        return false;
+    }
+
+    private static MapRecord<byte[], byte[], byte[]> record(byte[] key, byte[] value) {
+        return StreamRecords.newRecord().in(key).ofMap(Map.of(JOB_FIELD, value));
+    }
+
+    private static byte[] valueOf(ByteRecord record) {
+        // Records carry a single field
+        return record.getValue().values().iterator().next();
+    }
+
+    private static byte[] rawKey(String key) {
+        return RedisSerializer.string().serialize(key);
+    }
+}
@@ -5,10 +5,11 @@ import com.gateway.models.IdempotencyKeyId;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, IdempotencyKeyId> {
-    Optional<IdempotencyKey> findByKeyValueAndMerchantId(String keyValue, UUID merchantId);
+    Optional<IdempotencyKey> findByKeyValueAndMerchantIdAndExpiresAtAfter(String keyValue, UUID merchantId, LocalDateTime now);
 }
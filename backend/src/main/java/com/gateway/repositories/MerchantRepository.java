@@ -2,8 +2,10 @@ package com.gateway.repositories;
 
 import com.gateway.models.Merchant;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -11,4 +13,8 @@ import java.util.UUID;
 public interface MerchantRepository extends JpaRepository<Merchant, UUID> {
     Optional<Merchant> findByEmail(String email);
     Optional<Merchant> findByApiKey(String apiKey);
+    List<Merchant> findByApiSecretHashIsNull();
+
+    @Query("SELECT m.apiKey FROM Merchant m")
+    List<String> findAllApiKeys();
 }
@@ -0,0 +1,61 @@
+package com.gateway.repositories;
+
+import com.gateway.models.MerchantStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface MerchantStatsRepository extends JpaRepository<MerchantStats, UUID> {
+
+    // Atomic increment; creates the merchant's row on first use
+    @Modifying
+    @Query(value = "INSERT INTO merchant_stats (merchant_id, total_transactions, success_count, success_amount) " +
+            "VALUES (:merchantId, :transactions, :successes, :successAmount) " +
+            "ON DUPLICATE KEY UPDATE total_transactions = total_transactions + VALUES(total_transactions), " +
+            "success_count = success_count + VALUES(success_count), " +
+            "success_amount = success_amount + VALUES(success_amount)", nativeQuery = true)
+    void increment(@Param("merchantId") String merchantId,
+                   @Param("transactions") long transactions,
+                   @Param("successes") long successes,
+                   @Param("successAmount") long successAmount);
+
+    // Locks the merchant's counters (or the gap where they will be inserted) against increments
+    @Query(value = "SELECT merchant_id FROM merchant_stats WHERE merchant_id = :merchantId FOR UPDATE", nativeQuery = true)
+    List<String> lockRow(@Param("merchantId") String merchantId);
+
+    @Query(value = "SELECT DISTINCT merchant_id FROM payments", nativeQuery = true)
+    List<String> findMerchantIdsWithPayments();
+
+    // The merchant's counters as recomputed from the payments table; pending payments are not counted yet
+    @Query(value = "SELECT " +
+            "CAST(COALESCE(SUM(CASE WHEN LOWER(status) IN ('success', 'failed') THEN 1 ELSE 0 END), 0) AS SIGNED) AS transactions, " +
+            "CAST(COALESCE(SUM(CASE WHEN LOWER(status) = 'success' THEN 1 ELSE 0 END), 0) AS SIGNED) AS successes, " +
+            "CAST(COALESCE(SUM(CASE WHEN LOWER(status) = 'success' THEN amount ELSE 0 END), 0) AS SIGNED) AS successAmount " +
+            "FROM payments WHERE merchant_id = :merchantId", nativeQuery = true)
+    Totals sumPayments(@Param("merchantId") String merchantId);
+
+    @Modifying
+    @Query(value = "INSERT INTO merchant_stats (merchant_id, total_transactions, success_count, success_amount) " +
+            "VALUES (:merchantId, :transactions, :successes, :successAmount) " +
+            "ON DUPLICATE KEY UPDATE total_transactions = VALUES(total_transactions), " +
+            "success_count = VALUES(success_count), " +
+            "success_amount = VALUES(success_amount)", nativeQuery = true)
+    void overwrite(@Param("merchantId") String merchantId,
+                   @Param("transactions") long transactions,
+                   @Param("successes") long successes,
+                   @Param("successAmount") long successAmount);
+
+    interface Totals {
+        long getTransactions();
+
+        long getSuccesses();
+
+        long getSuccessAmount();
+    }
+}
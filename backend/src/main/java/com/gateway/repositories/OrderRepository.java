@@ -1,13 +1,34 @@
 package com.gateway.repositories;
 
 import com.gateway.models.Order;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, String> {
-    List<Order> findByMerchantId(UUID merchantId);
+    // Keyset pages ordered by (createdAt, id) descending, served by the
+    // idx_orders_merchant_created and idx_orders_merchant_status_created indexes
+    @Query("SELECT o FROM Order o WHERE o.merchantId = :merchantId " +
+           "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) " +
+           "ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findPageAfter(@Param("merchantId") UUID merchantId,
+                              @Param("createdAt") LocalDateTime createdAt,
+                              @Param("id") String id,
+                              Pageable pageable);
+
+    @Query("SELECT o FROM Order o WHERE o.merchantId = :merchantId AND o.status = :status " +
+           "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) " +
+           "ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findPageByStatusAfter(@Param("merchantId") UUID merchantId,
+                                      @Param("status") String status,
+                                      @Param("createdAt") LocalDateTime createdAt,
+                                      @Param("id") String id,
+                                      Pageable pageable);
 }
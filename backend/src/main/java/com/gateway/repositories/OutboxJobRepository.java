@@ -0,0 +1,17 @@
+package com.gateway.repositories;
+
+import com.gateway.models.OutboxJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OutboxJobRepository extends JpaRepository<OutboxJob, Long> {
+
+    // Oldest unrelayed jobs; rows locked by another relay are skipped rather than waited on
+    @Query(value = "SELECT * FROM job_outbox ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxJob> lockOldest(@Param("limit") int limit);
+}
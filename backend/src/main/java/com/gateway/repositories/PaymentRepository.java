@@ -1,14 +1,44 @@
 package com.gateway.repositories;
 
 import com.gateway.models.Payment;
+import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, String> {
     List<Payment> findByOrderId(String orderId);
-    List<Payment> findByMerchantId(UUID merchantId);
+
+    // Locks the rows so a redelivered job waits for the first completion and then skips them
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Payment p WHERE p.id IN :ids AND p.status = 'pending'")
+    List<Payment> findPendingForUpdate(@Param("ids") Collection<String> ids);
+
+    // Keyset pages ordered by (createdAt, id) descending, served by the
+    // idx_payments_merchant_created and idx_payments_merchant_status_created indexes
+    @Query("SELECT p FROM Payment p WHERE p.merchantId = :merchantId " +
+           "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Payment> findPageAfter(@Param("merchantId") UUID merchantId,
+                                @Param("createdAt") LocalDateTime createdAt,
+                                @Param("id") String id,
+                                Pageable pageable);
+
+    @Query("SELECT p FROM Payment p WHERE p.merchantId = :merchantId AND p.status = :status " +
+           "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Payment> findPageByStatusAfter(@Param("merchantId") UUID merchantId,
+                                        @Param("status") String status,
+                                        @Param("createdAt") LocalDateTime createdAt,
+                                        @Param("id") String id,
+                                        Pageable pageable);
 }
@@ -0,0 +1,89 @@
+package com.gateway.repositories;
+
+import com.gateway.models.PaymentRollup;
+import com.gateway.models.PaymentRollupId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface PaymentRollupRepository extends JpaRepository<PaymentRollup, PaymentRollupId> {
+
+    String SUMS = "SUM(r.paymentCount) AS paymentCount, SUM(r.successCount) AS successCount, " +
+            "SUM(r.successAmount) AS successAmount, SUM(r.refundCount) AS refundCount, SUM(r.refundAmount) AS refundAmount " +
+            "FROM PaymentRollup r WHERE r.merchantId = :merchantId AND r.granularity = :granularity " +
+            "AND r.bucketStart >= :from AND r.bucketStart < :to ";
+
+    // Summed in the database, so one row comes back per bucket (and grouped value) whatever the other dimensions hold
+    @Query("SELECT r.bucketStart AS bucket, " + SUMS + "GROUP BY r.bucketStart ORDER BY r.bucketStart")
+    List<BucketTotals> sumByBucket(@Param("merchantId") UUID merchantId,
+                                   @Param("granularity") String granularity,
+                                   @Param("from") LocalDateTime from,
+                                   @Param("to") LocalDateTime to);
+
+    @Query("SELECT r.bucketStart AS bucket, r.method AS dimension, " + SUMS +
+            "GROUP BY r.bucketStart, r.method ORDER BY r.bucketStart, r.method")
+    List<BucketTotals> sumByBucketAndMethod(@Param("merchantId") UUID merchantId,
+                                            @Param("granularity") String granularity,
+                                            @Param("from") LocalDateTime from,
+                                            @Param("to") LocalDateTime to);
+
+    @Query("SELECT r.bucketStart AS bucket, r.cardNetwork AS dimension, " + SUMS +
+            "GROUP BY r.bucketStart, r.cardNetwork ORDER BY r.bucketStart, r.cardNetwork")
+    List<BucketTotals> sumByBucketAndCardNetwork(@Param("merchantId") UUID merchantId,
+                                                 @Param("granularity") String granularity,
+                                                 @Param("from") LocalDateTime from,
+                                                 @Param("to") LocalDateTime to);
+
+    @Query("SELECT r.bucketStart AS bucket, r.currency AS dimension, " + SUMS +
+            "GROUP BY r.bucketStart, r.currency ORDER BY r.bucketStart, r.currency")
+    List<BucketTotals> sumByBucketAndCurrency(@Param("merchantId") UUID merchantId,
+                                              @Param("granularity") String granularity,
+                                              @Param("from") LocalDateTime from,
+                                              @Param("to") LocalDateTime to);
+
+    // Atomic increment; creates the bucket's row on first use
+    @Modifying
+    @Query(value = "INSERT INTO payment_rollups (merchant_id, granularity, bucket_start, method, card_network, currency, " +
+            "payment_count, success_count, success_amount, refund_count, refund_amount) " +
+            "VALUES (:merchantId, :granularity, :bucketStart, :method, :cardNetwork, :currency, " +
+            ":payments, :successes, :successAmount, :refunds, :refundAmount) " +
+            "ON DUPLICATE KEY UPDATE payment_count = payment_count + VALUES(payment_count), " +
+            "success_count = success_count + VALUES(success_count), " +
+            "success_amount = success_amount + VALUES(success_amount), " +
+            "refund_count = refund_count + VALUES(refund_count), " +
+            "refund_amount = refund_amount + VALUES(refund_amount)", nativeQuery = true)
+    void increment(@Param("merchantId") String merchantId,
+                   @Param("granularity") String granularity,
+                   @Param("bucketStart") LocalDateTime bucketStart,
+                   @Param("method") String method,
+                   @Param("cardNetwork") String cardNetwork,
+                   @Param("currency") String currency,
+                   @Param("payments") long payments,
+                   @Param("successes") long successes,
+                   @Param("successAmount") long successAmount,
+                   @Param("refunds") long refunds,
+                   @Param("refundAmount") long refundAmount);
+
+    interface BucketTotals {
+        LocalDateTime getBucket();
+
+        String getDimension(); // Null unless grouped
+
+        long getPaymentCount();
+
+        long getSuccessCount();
+
+        long getSuccessAmount();
+
+        long getRefundCount();
+
+        long getRefundAmount();
+    }
+}
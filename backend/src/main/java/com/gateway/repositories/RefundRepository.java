@@ -1,13 +1,44 @@
 package com.gateway.repositories;
 
 import com.gateway.models.Refund;
+import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
 @Repository
 public interface RefundRepository extends JpaRepository<Refund, String> {
     List<Refund> findByPaymentId(String paymentId);
-    List<Refund> findByMerchantId(java.util.UUID merchantId);
+
+    // Locks the row so a redelivered job waits for the first completion and then sees it processed
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Refund r WHERE r.id = :id")
+    Optional<Refund> findByIdForUpdate(@Param("id") String id);
+
+    // Keyset pages ordered by (createdAt, id) descending, served by the
+    // idx_refunds_merchant_created and idx_refunds_merchant_status_created indexes
+    @Query("SELECT r FROM Refund r WHERE r.merchantId = :merchantId " +
+           "AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    List<Refund> findPageAfter(@Param("merchantId") UUID merchantId,
+                               @Param("createdAt") LocalDateTime createdAt,
+                               @Param("id") String id,
+                               Pageable pageable);
+
+    @Query("SELECT r FROM Refund r WHERE r.merchantId = :merchantId AND r.status = :status " +
+           "AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    List<Refund> findPageByStatusAfter(@Param("merchantId") UUID merchantId,
+                                       @Param("status") String status,
+                                       @Param("createdAt") LocalDateTime createdAt,
+                                       @Param("id") String id,
+                                       Pageable pageable);
 }
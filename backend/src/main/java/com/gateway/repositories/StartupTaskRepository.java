@@ -0,0 +1,9 @@
+package com.gateway.repositories;
+
+import com.gateway.models.StartupTask;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StartupTaskRepository extends JpaRepository<StartupTask, String> {
+}
@@ -1,9 +1,10 @@
 package com.gateway.repositories;
 
 import com.gateway.models.WebhookLog;
-import org.springframework.data.domain.Page; // Added Import
-import org.springframework.data.domain.Pageable; // Added Import
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -12,10 +13,29 @@ import java.util.UUID;
 
 @Repository
 public interface WebhookLogRepository extends JpaRepository<WebhookLog, UUID> {
-    
-    // Fixed: Now correctly uses Page and Pageable imports
-    Page<WebhookLog> findByMerchantId(UUID merchantId, Pageable pageable);    
-    
-    // Find logs pending retry before a certain time (used by background workers)
-    List<WebhookLog> findByStatusAndNextRetryAtBefore(String status, LocalDateTime timestamp);
-}
\ No newline at end of file
+
+    // Keyset pages ordered by (createdAt, id) descending; null filters are folded away by the
+    // optimizer, leaving a range scan on idx_webhook_logs_merchant_created (or _merchant_status_created)
+    @Query("SELECT w FROM WebhookLog w WHERE w.merchantId = :merchantId " +
+           "AND (:status IS NULL OR w.status = :status) AND (:event IS NULL OR w.event = :event) " +
+           "AND (w.createdAt < :createdAt OR (w.createdAt = :createdAt AND w.id < :id)) " +
+           "ORDER BY w.createdAt DESC, w.id DESC")
+    List<WebhookLog> findPageAfter(@Param("merchantId") UUID merchantId,
+                                   @Param("status") String status,
+                                   @Param("event") String event,
+                                   @Param("createdAt") LocalDateTime createdAt,
+                                   @Param("id") UUID id,
+                                   Pageable pageable);
+
+    // Retries scheduled in the table by the old DB-polling scheduler, in id order
+    // (deliveries parked before their first attempt have no attempts yet and are skipped)
+    @Query("SELECT w FROM WebhookLog w WHERE w.status = 'pending' AND w.nextRetryAt IS NOT NULL AND w.attempts > 0 " +
+           "AND (:after IS NULL OR w.id > :after) ORDER BY w.id")
+    List<WebhookLog> findScheduledRetriesAfter(@Param("after") UUID after, Pageable pageable);
+
+    @Query("SELECT COUNT(w) FROM WebhookLog w WHERE w.merchantId = :merchantId " +
+           "AND (:status IS NULL OR w.status = :status) AND (:event IS NULL OR w.event = :event)")
+    long countFiltered(@Param("merchantId") UUID merchantId,
+                       @Param("status") String status,
+                       @Param("event") String event);
+}
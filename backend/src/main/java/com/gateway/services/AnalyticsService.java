@@ -0,0 +1,157 @@
+package com.gateway.services;
+
+import com.gateway.models.Payment;
+import com.gateway.models.Refund;
+import com.gateway.repositories.PaymentRollupRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Hourly and daily payment rollups per merchant, method, card network and currency.
+ *
+ * Rollups are incremented when a payment reaches a final status (bucketed by its creation time)
+ * and when a refund is processed (bucketed by its processing time). A range query sums the
+ * rows in the database and returns one row per bucket, or per bucket and grouped value,
+ * however many payments or dimension combinations there are.
+ */
+@Service
+@RequiredArgsConstructor
+public class AnalyticsService {
+
+    public static final String HOUR = "hour";
+    public static final String DAY = "day";
+
+    private static final Set<String> FINAL_STATUSES = Set.of("success", "failed");
+
+    private static final Set<String> DIMENSIONS = Set.of("method", "cardNetwork", "currency");
+
+    private final PaymentRollupRepository paymentRollupRepository;
+
+    @Value("${app.analytics.max-buckets:400}")
+    private int maxBuckets;
+
+    private record Key(UUID merchantId, String granularity, LocalDateTime bucketStart,
+                       String method, String cardNetwork, String currency) {}
+
+    // Every transaction upserts rollup rows in this order, so concurrent batches cannot deadlock on them
+    private static final Comparator<Key> LOCK_ORDER = Comparator.comparing(Key::merchantId)
+            .thenComparing(Key::granularity)
+            .thenComparing(Key::bucketStart)
+            .thenComparing(Key::method)
+            .thenComparing(Key::cardNetwork)
+            .thenComparing(Key::currency);
+
+    /**
+     * Adds payments that reached a final status. {@code previousStatuses} holds each payment's
+     * status before the change, so reprocessing a payment neither counts it twice nor loses a
+     * success that turned into a failure.
+     */
+    @Transactional
+    public void recordPaymentOutcomes(List<Payment> payments, Map<String, String> previousStatuses) {
+        // One increment per rollup row per batch
+        Map<Key, long[]> deltas = new TreeMap<>(LOCK_ORDER);
+        for (Payment payment : payments) {
+            String previous = normalize(previousStatuses.get(payment.getId()));
+            String current = normalize(payment.getStatus());
+            if (previous.equals(current) || !FINAL_STATUSES.contains(current)) continue;
+
+            long newlyFinal = FINAL_STATUSES.contains(previous) ? 0 : 1;
+            long successes = ("success".equals(current) ? 1 : 0) - ("success".equals(previous) ? 1 : 0);
+            for (String granularity : List.of(HOUR, DAY)) {
+                long[] delta = deltas.computeIfAbsent(keyFor(payment, granularity, payment.getCreatedAt()), k -> new long[3]);
+                delta[0] += newlyFinal;
+                delta[1] += successes;
+                delta[2] += successes * payment.getAmount();
+            }
+        }
+        deltas.forEach((key, delta) -> increment(key, delta[0], delta[1], delta[2], 0, 0));
+    }
+
+    @Transactional
+    public void recordRefund(Refund refund, Payment payment) {
+        LocalDateTime at = refund.getProcessedAt() != null ? refund.getProcessedAt() : LocalDateTime.now();
+        Map<Key, long[]> deltas = new TreeMap<>(LOCK_ORDER);
+        for (String granularity : List.of(HOUR, DAY)) {
+            deltas.put(keyFor(payment, granularity, at), new long[] {0, 0, 0, 1, refund.getAmount()});
+        }
+        deltas.forEach((key, delta) -> increment(key, delta[0], delta[1], delta[2], delta[3], delta[4]));
+    }
+
+    /**
+     * Returns one entry per bucket in [{@code from}, {@code to}), optionally split by
+     * {@code groupBy} (method, cardNetwork or currency).
+     */
+    public List<Map<String, Object>> getSeries(UUID merchantId, String granularity,
+                                               LocalDateTime from, LocalDateTime to, String groupBy) {
+        if (!HOUR.equals(granularity) && !DAY.equals(granularity)) {
+            throw new IllegalArgumentException("granularity must be 'hour' or 'day'");
+        }
+        if (groupBy != null && !DIMENSIONS.contains(groupBy)) {
+            throw new IllegalArgumentException("groupBy must be one of " + DIMENSIONS);
+        }
+        LocalDateTime start = truncate(from, granularity);
+        long buckets = Duration.between(start, to).toHours() / (DAY.equals(granularity) ? 24 : 1);
+        if (!to.isAfter(start) || buckets > maxBuckets) {
+            throw new IllegalArgumentException("Range must cover between 1 and " + maxBuckets + " " + granularity + " buckets");
+        }
+
+        List<PaymentRollupRepository.BucketTotals> rows = groupBy == null
+                ? paymentRollupRepository.sumByBucket(merchantId, granularity, start, to)
+                : switch (groupBy) {
+                    case "method" -> paymentRollupRepository.sumByBucketAndMethod(merchantId, granularity, start, to);
+                    case "cardNetwork" -> paymentRollupRepository.sumByBucketAndCardNetwork(merchantId, granularity, start, to);
+                    default -> paymentRollupRepository.sumByBucketAndCurrency(merchantId, granularity, start, to);
+                };
+
+        List<Map<String, Object>> series = new ArrayList<>(rows.size());
+        for (PaymentRollupRepository.BucketTotals row : rows) {
+            Map<String, Object> point = new LinkedHashMap<>();
+            point.put("bucket", row.getBucket());
+            if (groupBy != null) point.put(groupBy, row.getDimension());
+            point.put("count", row.getPaymentCount());
+            point.put("successCount", row.getSuccessCount());
+            point.put("successRate", row.getPaymentCount() > 0 ? ((double) row.getSuccessCount() / row.getPaymentCount()) * 100 : 0.0);
+            point.put("volume", row.getSuccessAmount());
+            point.put("refundCount", row.getRefundCount());
+            point.put("refundAmount", row.getRefundAmount());
+            series.add(point);
+        }
+        return series;
+    }
+
+    public static LocalDateTime truncate(LocalDateTime time, String granularity) {
+        return DAY.equals(granularity) ? time.truncatedTo(ChronoUnit.DAYS) : time.truncatedTo(ChronoUnit.HOURS);
+    }
+
+    private Key keyFor(Payment payment, String granularity, LocalDateTime at) {
+        return new Key(payment.getMerchantId(), granularity,
+                truncate(at != null ? at : LocalDateTime.now(), granularity),
+                normalize(payment.getMethod()),
+                normalize(payment.getCardNetwork()),
+                payment.getCurrency() != null ? payment.getCurrency() : "INR");
+    }
+
+    private void increment(Key key, long payments, long successes, long successAmount, long refunds, long refundAmount) {
+        paymentRollupRepository.increment(key.merchantId().toString(), key.granularity(), key.bucketStart(),
+                key.method(), key.cardNetwork(), key.currency(),
+                payments, successes, successAmount, refunds, refundAmount);
+    }
+
+    private static String normalize(String value) {
+        return value != null ? value.toLowerCase() : "";
+    }
+}
@@ -0,0 +1,27 @@
+package com.gateway.services;
+
+import org.apache.commons.codec.digest.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * API secrets are stored as SHA-256 hex digests. They are long random strings, so a fast hash is
+ * enough, and verification compares digests in constant time.
+ */
+public final class ApiSecrets {
+
+    private ApiSecrets() {
+    }
+
+    public static String hash(String secret) {
+        return DigestUtils.sha256Hex(secret);
+    }
+
+    public static boolean matches(String secret, String storedHash) {
+        if (secret == null || storedHash == null) return false;
+        return MessageDigest.isEqual(
+                hash(secret).getBytes(StandardCharsets.US_ASCII),
+                storedHash.getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,114 @@
+package com.gateway.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Card network lookup by BIN (issuer identification number) range.
+ *
+ * The table file has one {@code low,high,network} range per line, where {@code low} and
+ * {@code high} are digit prefixes of equal length (e.g. {@code 2221,2720,mastercard}). Each range
+ * is split into the smallest set of decimal prefixes covering it and stored in a digit trie, so a
+ * lookup walks at most {@link #MAX_PREFIX_LENGTH} digits and the longest matching prefix wins.
+ */
+@Component
+@Slf4j
+public class BinTable {
+
+    public static final int MAX_PREFIX_LENGTH = 8;
+
+    public static final String UNKNOWN = "unknown";
+
+    private static final class Node {
+        final Node[] children = new Node[10];
+        String network;
+    }
+
+    private final Node root = new Node();
+
+    public BinTable(@Value("${app.cards.bin-table:classpath:bin-ranges.csv}") Resource table) {
+        int ranges = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(table.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                String[] fields = line.split(",");
+                if (fields.length != 3 || fields[0].length() != fields[1].length()
+                        || fields[0].length() > MAX_PREFIX_LENGTH || !isDigits(fields[0]) || !isDigits(fields[1])) {
+                    throw new IllegalStateException("Invalid BIN range on line " + lineNumber + ": " + line);
+                }
+                addRange(Long.parseLong(fields[0]), Long.parseLong(fields[1]), fields[0].length(), fields[2].strip());
+                ranges++;
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to load BIN table " + table.getDescription(), e);
+        }
+        log.info("Loaded {} BIN ranges", ranges);
+    }
+
+    /**
+     * Network of the card, read from its leading digits; whitespace and dashes are skipped. Does not
+     * allocate.
+     */
+    public String lookup(CharSequence cardNumber) {
+        String network = UNKNOWN;
+        Node node = root;
+        int depth = 0;
+        for (int i = 0; i < cardNumber.length() && depth < MAX_PREFIX_LENGTH; i++) {
+            char c = cardNumber.charAt(i);
+            if (c == '-' || Character.isWhitespace(c)) continue;
+            if (c < '0' || c > '9') break;
+            node = node.children[c - '0'];
+            if (node == null) break;
+            if (node.network != null) network = node.network;
+            depth++;
+        }
+        return network;
+    }
+
+    // Covers [low, high] with the fewest prefixes, e.g. 2221-2720 -> 2221..2229, 223..229, 23..26, 270, 271, 2720
+    private void addRange(long low, long high, int length, String network) {
+        while (low <= high) {
+            int freeDigits = 0;
+            long block = 1;
+            while (freeDigits < length && low % (block * 10) == 0 && low + block * 10 - 1 <= high) {
+                block *= 10;
+                freeDigits++;
+            }
+            insert(low / block, length - freeDigits, network);
+            low += block;
+        }
+    }
+
+    private void insert(long prefix, int length, String network) {
+        Node node = root;
+        long divisor = 1;
+        for (int i = 1; i < length; i++) divisor *= 10;
+        for (int i = 0; i < length; i++) {
+            int digit = (int) (prefix / divisor % 10);
+            if (node.children[digit] == null) node.children[digit] = new Node();
+            node = node.children[digit];
+            divisor /= 10;
+        }
+        node.network = network;
+    }
+
+    private static boolean isDigits(String value) {
+        if (value.isEmpty()) return false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,187 @@
+package com.gateway.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gateway.models.Payment;
+import com.gateway.repositories.OrderRepository;
+import com.gateway.repositories.PaymentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache behind the public order and payment endpoints polled by the checkout page.
+ *
+ * Entries hold the response already serialized to JSON together with its ETag, so a hit costs
+ * neither a query nor serialization, and an unchanged poll is answered with 304. Concurrent misses
+ * on the same key share one database read. Orders never change after creation and payments in a
+ * final status only change on capture, so both live for {@code app.checkout-cache.ttl-ms}; pending
+ * payments are kept for {@code app.checkout-cache.pending-ttl-ms} only. Status changes are
+ * announced on a Redis channel so every API node drops its copy straight away.
+ */
+@Component
+@Slf4j
+public class CheckoutCache implements MessageListener {
+
+    public static final String INVALIDATION_CHANNEL = "payment:invalidate";
+
+    private static final Set<String> FINAL_STATUSES = Set.of("success", "failed");
+
+    /** A serialized response and its (quoted) ETag. */
+    public record Snapshot(byte[] json, String etag, long expiresAt) {
+
+        /** True if an If-None-Match header lists this snapshot's ETag. */
+        public boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null) return false;
+            for (String tag : ifNoneMatch.split(",")) {
+                String candidate = tag.trim();
+                if (candidate.startsWith("W/")) candidate = candidate.substring(2);
+                if (candidate.equals(etag) || candidate.equals("*")) return true;
+            }
+            return false;
+        }
+    }
+
+    private final OrderRepository orderRepository;
+    private final PaymentRepository paymentRepository;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, Snapshot> entries = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Snapshot>> loading = new ConcurrentHashMap<>();
+
+    @Value("${app.checkout-cache.ttl-ms:300000}")
+    private long ttlMs;
+
+    @Value("${app.checkout-cache.pending-ttl-ms:2000}")
+    private long pendingTtlMs;
+
+    @Value("${app.checkout-cache.max-size:50000}")
+    private int maxSize;
+
+    public CheckoutCache(OrderRepository orderRepository,
+                         PaymentRepository paymentRepository,
+                         StringRedisTemplate stringRedisTemplate,
+                         ObjectMapper objectMapper,
+                         RedisMessageListenerContainer listenerContainer) {
+        this.orderRepository = orderRepository;
+        this.paymentRepository = paymentRepository;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.objectMapper = objectMapper;
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    /** The order as JSON, or null if it does not exist. */
+    public Snapshot getOrder(String orderId) {
+        return get("order:" + orderId, () -> orderRepository.findById(orderId)
+                .map(order -> snapshot(order, ttlMs))
+                .orElse(null));
+    }
+
+    /** The payment as JSON, or null if it does not exist. */
+    public Snapshot getPayment(String paymentId) {
+        return get("payment:" + paymentId, () -> paymentRepository.findById(paymentId)
+                .map(payment -> snapshot(payment, isFinal(payment) ? ttlMs : pendingTtlMs))
+                .orElse(null));
+    }
+
+    /** Drops the payments here and, through Redis, on every other node. Call after the change is committed. */
+    public void invalidatePayments(Collection<String> paymentIds) {
+        if (paymentIds.isEmpty()) return;
+        paymentIds.forEach(this::evictPayment);
+        try {
+            stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL, String.join(",", paymentIds));
+        } catch (Exception e) {
+            // Other nodes catch up when their entry expires
+            log.error("Failed to publish invalidation for payments {}", paymentIds, e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        for (String paymentId : new String(message.getBody(), StandardCharsets.UTF_8).split(",")) {
+            if (!paymentId.isEmpty()) evictPayment(paymentId);
+        }
+    }
+
+    private Snapshot get(String key, Supplier<Snapshot> loader) {
+        Snapshot cached = entries.get(key);
+        if (cached != null) {
+            if (cached.expiresAt() >= System.currentTimeMillis()) return cached;
+            entries.remove(key, cached);
+        }
+
+        // Single flight: the first miss loads, concurrent misses on the same key wait for it
+        CompletableFuture<Snapshot> mine = new CompletableFuture<>();
+        CompletableFuture<Snapshot> inFlight = loading.putIfAbsent(key, mine);
+        if (inFlight != null) {
+            return inFlight.join();
+        }
+
+        try {
+            Snapshot loaded = loader.get();
+            if (loaded != null) {
+                // An invalidation of this key meanwhile has dropped our load from the map, and holds
+                // the same bin lock as this check, so a stale read is never cached
+                loading.computeIfPresent(key, (k, current) -> {
+                    if (current == mine) entries.put(key, loaded);
+                    return current;
+                });
+                if (entries.size() > maxSize) evictOverflow();
+            }
+            mine.complete(loaded);
+            return loaded;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, mine);
+        }
+    }
+
+    private Snapshot snapshot(Object value, long ttl) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(value);
+            return new Snapshot(json, "\"" + DigestUtils.md5Hex(json) + "\"", System.currentTimeMillis() + ttl);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize " + value.getClass().getSimpleName(), e);
+        }
+    }
+
+    private void evictPayment(String paymentId) {
+        String key = "payment:" + paymentId;
+        // A load already in flight may have read the old row; it is not cached
+        loading.remove(key);
+        entries.remove(key);
+    }
+
+    private static boolean isFinal(Payment payment) {
+        return FINAL_STATUSES.contains(payment.getStatus());
+    }
+
+    private void evictOverflow() {
+        // Expired entries go first, then arbitrary ones until the cache is back under its bound
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expiresAt() < now);
+        Iterator<Map.Entry<String, Snapshot>> it = entries.entrySet().iterator();
+        while (entries.size() > maxSize && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+}
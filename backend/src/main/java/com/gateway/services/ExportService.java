@@ -0,0 +1,212 @@
+package com.gateway.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Streaming CSV / NDJSON export of a merchant's payments and refunds for reconciliation.
+ *
+ * Rows are read through a forward-only, read-only cursor and written to the output as they
+ * arrive, so memory use does not depend on the number of rows exported. The range scan runs on
+ * the (merchant_id, created_at, id) index in ascending order.
+ */
+@Service
+@Slf4j
+public class ExportService {
+
+    public enum Format { CSV, NDJSON }
+
+    private enum Kind { STRING, NUMBER, BOOLEAN, TIMESTAMP }
+
+    private record Column(String name, Kind kind) {}
+
+    private static final List<Column> PAYMENT_COLUMNS = List.of(
+            new Column("id", Kind.STRING),
+            new Column("order_id", Kind.STRING),
+            new Column("amount", Kind.NUMBER),
+            new Column("currency", Kind.STRING),
+            new Column("method", Kind.STRING),
+            new Column("status", Kind.STRING),
+            new Column("vpa", Kind.STRING),
+            new Column("card_network", Kind.STRING),
+            new Column("card_last4", Kind.STRING),
+            new Column("error_code", Kind.STRING),
+            new Column("error_description", Kind.STRING),
+            new Column("captured", Kind.BOOLEAN),
+            new Column("created_at", Kind.TIMESTAMP),
+            new Column("updated_at", Kind.TIMESTAMP));
+
+    private static final List<Column> REFUND_COLUMNS = List.of(
+            new Column("id", Kind.STRING),
+            new Column("payment_id", Kind.STRING),
+            new Column("amount", Kind.NUMBER),
+            new Column("reason", Kind.STRING),
+            new Column("status", Kind.STRING),
+            new Column("created_at", Kind.TIMESTAMP),
+            new Column("processed_at", Kind.TIMESTAMP));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public ExportService(DataSource dataSource, ObjectMapper objectMapper,
+                         @Value("${app.export.fetch-size:-2147483648}") int fetchSize) {
+        // Own template so the fetch size only applies to exports (JdbcTemplate statements are forward-only)
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.objectMapper = objectMapper;
+    }
+
+    public long exportPayments(UUID merchantId, LocalDateTime from, LocalDateTime to, Format format, OutputStream out) {
+        return export("payments", PAYMENT_COLUMNS, merchantId, from, to, format, out);
+    }
+
+    public long exportRefunds(UUID merchantId, LocalDateTime from, LocalDateTime to, Format format, OutputStream out) {
+        return export("refunds", REFUND_COLUMNS, merchantId, from, to, format, out);
+    }
+
+    private long export(String table, List<Column> columns, UUID merchantId,
+                        LocalDateTime from, LocalDateTime to, Format format, OutputStream out) {
+        String sql = "SELECT " + String.join(", ", columns.stream().map(Column::name).toList()) +
+                " FROM " + table + " WHERE merchant_id = ? AND created_at >= ? AND created_at < ?" +
+                " ORDER BY created_at, id";
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        try {
+            RowWriter rows = format == Format.CSV ? new CsvRowWriter(writer, columns) : new JsonRowWriter(writer, columns);
+            long[] count = {0};
+            jdbcTemplate.query(sql, rs -> {
+                try {
+                    rows.write(rs);
+                } catch (IOException e) {
+                    // Usually the client went away; abandoning the cursor closes the statement
+                    throw new UncheckedIOException(e);
+                }
+                count[0]++;
+            }, merchantId.toString(), from, to);
+            rows.finish();
+            writer.flush();
+            log.info("Exported {} {} of merchant {} as {}", count[0], table, merchantId, format);
+            return count[0];
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+
+        void finish() throws IOException;
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+        private final List<Column> columns;
+
+        CsvRowWriter(Writer writer, List<Column> columns) throws IOException {
+            this.writer = writer;
+            this.columns = columns;
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) writer.write(',');
+                writer.write(columns.get(i).name());
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) writer.write(',');
+                Object value = columns.get(i).kind() == Kind.TIMESTAMP
+                        ? rs.getObject(i + 1, LocalDateTime.class)
+                        : rs.getObject(i + 1);
+                if (value != null) writeField(value.toString());
+            }
+            writer.write("\r\n");
+        }
+
+        // RFC 4180: quote fields containing separators, quotes or line breaks
+        private void writeField(String value) throws IOException {
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        public void finish() {
+        }
+    }
+
+    private final class JsonRowWriter implements RowWriter {
+        private final JsonGenerator generator;
+        private final List<Column> columns;
+        private boolean empty = true;
+
+        JsonRowWriter(Writer writer, List<Column> columns) throws IOException {
+            // One object per line; the generator must not close the response stream
+            this.generator = objectMapper.getFactory().createGenerator(writer)
+                    .setPrettyPrinter(new MinimalPrettyPrinter("\n"))
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.columns = columns;
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < columns.size(); i++) {
+                Column column = columns.get(i);
+                generator.writeFieldName(column.name());
+                switch (column.kind()) {
+                    case NUMBER -> {
+                        long value = rs.getLong(i + 1);
+                        if (rs.wasNull()) generator.writeNull(); else generator.writeNumber(value);
+                    }
+                    case BOOLEAN -> {
+                        boolean value = rs.getBoolean(i + 1);
+                        if (rs.wasNull()) generator.writeNull(); else generator.writeBoolean(value);
+                    }
+                    case TIMESTAMP -> {
+                        LocalDateTime value = rs.getObject(i + 1, LocalDateTime.class);
+                        generator.writeString(value != null ? value.toString() : null);
+                    }
+                    default -> generator.writeString(rs.getString(i + 1));
+                }
+            }
+            generator.writeEndObject();
+            empty = false;
+        }
+
+        @Override
+        public void finish() throws IOException {
+            if (!empty) generator.writeRaw('\n');
+            generator.flush();
+        }
+    }
+}
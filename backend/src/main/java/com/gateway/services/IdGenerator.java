@@ -0,0 +1,125 @@
+package com.gateway.services;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Time-ordered, collision-free ids: prefix + 16 characters of
+ * {@code timestamp (8) | node (4) | sequence (4)}, each field a fixed-width base36 number.
+ *
+ * Ids from one node are strictly increasing and ids from different nodes differ in the node
+ * field, so no existence check is needed and new rows are appended at the end of the primary
+ * key index. The body uses digits and lowercase letters only: MySQL's default collation compares
+ * case-insensitively, so mixed-case bodies could clash and would not sort by time.
+ *
+ * The node comes from {@code app.id.node-id} or from a Redis counter. If neither is available
+ * startup fails rather than guessing one, since a guessed node could match another pod's.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IdGenerator {
+
+    private static final char[] DIGITS = "0123456789abcdefghijklmnopqrstuvwxyz".toCharArray();
+
+    private static final int TIMESTAMP_WIDTH = 8;   // ~89 years of milliseconds
+    private static final int NODE_WIDTH = 4;        // 1,679,616 nodes
+    private static final int SEQUENCE_WIDTH = 4;    // 1,679,616 ids per millisecond per node
+
+    private static final long EPOCH_MS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    private static final long MAX_NODE = pow36(NODE_WIDTH);
+    private static final long MAX_SEQUENCE = pow36(SEQUENCE_WIDTH);
+
+    private static final String NODE_COUNTER_KEY = "id:node-counter";
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    // -1: take the next node id from a Redis counter at startup
+    @Value("${app.id.node-id:-1}")
+    private long configuredNodeId;
+
+    private long nodeId;
+    private long lastTimestamp;
+    private long sequence;
+
+    @PostConstruct
+    void assignNode() {
+        if (configuredNodeId >= MAX_NODE) {
+            throw new IllegalStateException("app.id.node-id must be below " + MAX_NODE + ", got " + configuredNodeId);
+        }
+        if (configuredNodeId >= 0) {
+            nodeId = configuredNodeId;
+        } else {
+            Long counter;
+            try {
+                // One round trip per process start; every start gets a fresh node id
+                counter = stringRedisTemplate.opsForValue().increment(NODE_COUNTER_KEY);
+            } catch (Exception e) {
+                throw new IllegalStateException("Could not allocate an id node from Redis; "
+                        + "start with Redis reachable or set app.id.node-id to a value unique to this node", e);
+            }
+            if (counter == null) {
+                throw new IllegalStateException("Could not allocate an id node from Redis");
+            }
+            nodeId = Math.floorMod(counter, MAX_NODE);
+        }
+        log.info("Id generator node: {}", nodeId);
+    }
+
+    public String orderId() {
+        return "order_" + nextBody();
+    }
+
+    public String paymentId() {
+        return "pay_" + nextBody();
+    }
+
+    public String refundId() {
+        return "rfnd_" + nextBody();
+    }
+
+    private String nextBody() {
+        long timestamp;
+        long seq;
+        synchronized (this) {
+            // Never step back in time: if the clock moves backwards, keep counting on the last timestamp
+            long now = Math.max(System.currentTimeMillis() - EPOCH_MS, lastTimestamp);
+            if (now > lastTimestamp) {
+                lastTimestamp = now;
+                sequence = 0;
+            } else if (++sequence == MAX_SEQUENCE) {
+                // Sequence exhausted within one millisecond: borrow the next one
+                lastTimestamp++;
+                sequence = 0;
+            }
+            timestamp = lastTimestamp;
+            seq = sequence;
+        }
+
+        char[] body = new char[TIMESTAMP_WIDTH + NODE_WIDTH + SEQUENCE_WIDTH];
+        write(body, 0, TIMESTAMP_WIDTH, timestamp);
+        write(body, TIMESTAMP_WIDTH, NODE_WIDTH, nodeId);
+        write(body, TIMESTAMP_WIDTH + NODE_WIDTH, SEQUENCE_WIDTH, seq);
+        return new String(body);
+    }
+
+    // Fixed-width, zero-padded, most significant digit first, so string order is numeric order
+    private static void write(char[] out, int offset, int width, long value) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            out[i] = DIGITS[(int) (value % 36)];
+            value /= 36;
+        }
+    }
+
+    private static long pow36(int width) {
+        long result = 1;
+        for (int i = 0; i < width; i++) result *= 36;
+        return result;
+    }
+}
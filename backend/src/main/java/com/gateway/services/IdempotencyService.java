@@ -1,53 +1,161 @@
 package com.gateway.services;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.gateway.models.IdempotencyKey;
 import com.gateway.repositories.IdempotencyKeyRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
+/**
+ * Idempotency-Key handling backed by Redis.
+ *
+ * A request claims its key atomically (SET NX) with an in-flight marker that expires on its own
+ * if the request dies. The winner processes the request and replaces the marker with the
+ * serialized response, kept for 24h with a native TTL. A concurrent request with the same key
+ * waits briefly for that response and gets a conflict if it does not arrive in time.
+ *
+ * With {@code app.idempotency.durable=true} responses are also written to the idempotency_keys
+ * table and looked up there when Redis has no entry (e.g. after a Redis failover).
+ */
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class IdempotencyService {
 
+    private static final String IN_FLIGHT_PREFIX = "inflight:";
+    private static final long POLL_INTERVAL_MS = 50;
+    private static final TypeReference<Map<String, Object>> RESPONSE_TYPE = new TypeReference<>() {};
+
+    // Only the request that placed the marker may release it
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end return 0",
+            Long.class);
+
     private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final StringRedisTemplate stringRedisTemplate;
     private final ObjectMapper objectMapper;
 
-    public Optional<Map<String, Object>> getResponse(String key, UUID merchantId) {
-        Optional<IdempotencyKey> existing = idempotencyKeyRepository.findByKeyValueAndMerchantId(key, merchantId);
-        
-        if (existing.isPresent()) {
-            IdempotencyKey record = existing.get();
-            if (record.getExpiresAt().isBefore(LocalDateTime.now())) {
-                idempotencyKeyRepository.delete(record);
-                return Optional.empty();
+    @Value("${app.idempotency.ttl-ms:86400000}")
+    private long ttlMs;
+
+    @Value("${app.idempotency.in-flight-ttl-ms:30000}")
+    private long inFlightTtlMs;
+
+    @Value("${app.idempotency.wait-ms:2000}")
+    private long waitMs;
+
+    @Value("${app.idempotency.durable:false}")
+    private boolean durable;
+
+    public enum Outcome { CLAIMED, REPLAY, IN_FLIGHT }
+
+    public record Claim(Outcome outcome, Map<String, Object> response, String marker) {}
+
+    public static String keyFor(String key, UUID merchantId) {
+        return "idempotency:" + merchantId + ":" + key;
+    }
+
+    /**
+     * Claims {@code key} for this request, or returns the stored response of an earlier request
+     * with the same key. Returns {@link Outcome#IN_FLIGHT} if another request still holds the key
+     * after waiting up to {@code app.idempotency.wait-ms}.
+     */
+    public Claim claim(String key, UUID merchantId) {
+        String redisKey = keyFor(key, merchantId);
+        String marker = IN_FLIGHT_PREFIX + UUID.randomUUID();
+        long deadline = System.currentTimeMillis() + waitMs;
+
+        try {
+            while (true) {
+                Boolean claimed = stringRedisTemplate.opsForValue()
+                        .setIfAbsent(redisKey, marker, Duration.ofMillis(inFlightTtlMs));
+                if (Boolean.TRUE.equals(claimed)) {
+                    Optional<Map<String, Object>> stored = durable ? getDurableResponse(key, merchantId) : Optional.empty();
+                    if (stored.isPresent()) {
+                        cacheResponse(redisKey, stored.get());
+                        return new Claim(Outcome.REPLAY, stored.get(), null);
+                    }
+                    return new Claim(Outcome.CLAIMED, null, marker);
+                }
+
+                String existing = stringRedisTemplate.opsForValue().get(redisKey);
+                if (existing != null && !existing.startsWith(IN_FLIGHT_PREFIX)) {
+                    return new Claim(Outcome.REPLAY, objectMapper.readValue(existing, RESPONSE_TYPE), null);
+                }
+                if (System.currentTimeMillis() >= deadline) {
+                    return new Claim(Outcome.IN_FLIGHT, null, null);
+                }
+                // Held by a concurrent request (or just released): wait for its response
+                Thread.sleep(POLL_INTERVAL_MS);
             }
-            return Optional.of(record.getResponse());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Claim(Outcome.IN_FLIGHT, null, null);
+        } catch (Exception e) {
+            // Redis unavailable: fall back to the table, without in-flight protection
+            log.error("Idempotency claim failed for key {}, falling back to database", key, e);
+            return getDurableResponse(key, merchantId)
+                    .map(response -> new Claim(Outcome.REPLAY, response, null))
+                    .orElse(new Claim(Outcome.CLAIMED, null, null));
         }
-        return Optional.empty();
     }
 
     public void saveResponse(String key, UUID merchantId, Object response) {
         try {
-            IdempotencyKey record = new IdempotencyKey();
-            record.setKeyValue(key);
-            record.setMerchantId(merchantId);
-            
-            // Convert POJO to Map for JSON column storage
-            Map<String, Object> responseMap = objectMapper.convertValue(response, Map.class);
-            record.setResponse(responseMap);
-            
-            record.setExpiresAt(LocalDateTime.now().plusHours(24));
-            
-            idempotencyKeyRepository.save(record);
+            Map<String, Object> responseMap = objectMapper.convertValue(response, RESPONSE_TYPE);
+            cacheResponse(keyFor(key, merchantId), responseMap);
+            if (durable) {
+                saveDurableResponse(key, merchantId, responseMap);
+            }
         } catch (Exception e) {
             // Log error but don't fail the request
-            e.printStackTrace();
+            log.error("Failed to save idempotent response for key {}", key, e);
         }
     }
+
+    /** Gives up a claim whose request failed, so a retry with the same key is processed again. */
+    public void release(String key, UUID merchantId, Claim claim) {
+        if (claim.marker() == null) return;
+        try {
+            stringRedisTemplate.execute(RELEASE_SCRIPT, List.of(keyFor(key, merchantId)), claim.marker());
+        } catch (Exception e) {
+            // The marker expires on its own
+            log.error("Failed to release idempotency key {}", key, e);
+        }
+    }
+
+    private void cacheResponse(String redisKey, Map<String, Object> response) {
+        try {
+            stringRedisTemplate.opsForValue().set(redisKey, objectMapper.writeValueAsString(response), Duration.ofMillis(ttlMs));
+        } catch (Exception e) {
+            log.error("Failed to cache idempotent response", e);
+        }
+    }
+
+    private Optional<Map<String, Object>> getDurableResponse(String key, UUID merchantId) {
+        return idempotencyKeyRepository.findByKeyValueAndMerchantIdAndExpiresAtAfter(key, merchantId, LocalDateTime.now())
+                .map(IdempotencyKey::getResponse);
+    }
+
+    private void saveDurableResponse(String key, UUID merchantId, Map<String, Object> response) {
+        IdempotencyKey record = new IdempotencyKey();
+        record.setKeyValue(key);
+        record.setMerchantId(merchantId);
+        record.setResponse(response);
+        record.setExpiresAt(LocalDateTime.now().plus(Duration.ofMillis(ttlMs)));
+        idempotencyKeyRepository.save(record);
+    }
 }
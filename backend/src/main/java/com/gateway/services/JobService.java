@@ -1,14 +1,23 @@
 package com.gateway.services;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.gateway.jobs.DeliverWebhookJob;
 import com.gateway.jobs.ProcessPaymentJob;
 import com.gateway.jobs.ProcessRefundJob;
+import com.gateway.models.OutboxJob;
+import com.gateway.queue.JobCodec;
+import com.gateway.queue.JobQueue;
+import com.gateway.repositories.OutboxJobRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -16,25 +25,65 @@ import java.util.Map;
 @Slf4j
 public class JobService {
 
-    private final RedisTemplate<String, Object> redisTemplate;
+    private final JobQueue jobQueue;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final OutboxJobRepository outboxJobRepository;
+    private final JobCodec jobCodec;
+    private final ObjectMapper objectMapper;
 
     public static final String PAYMENT_QUEUE = "payment_queue";
     public static final String WEBHOOK_QUEUE = "webhook_queue";
     public static final String REFUND_QUEUE = "refund_queue";
 
+    // Written to the outbox in the caller's transaction; OutboxRelay pushes it to Redis after commit
+    @Transactional
     public void enqueuePaymentJob(ProcessPaymentJob job) {
         log.info("Enqueuing payment job: {}", job.getPaymentId());
-        redisTemplate.opsForList().rightPush(PAYMENT_QUEUE, job);
+        addToOutbox(PAYMENT_QUEUE, job);
     }
 
     public void enqueueWebhookJob(DeliverWebhookJob job) {
         log.info("Enqueuing webhook job for event: {}", job.getEventType());
-        redisTemplate.opsForList().rightPush(WEBHOOK_QUEUE, job);
+        jobQueue.enqueue(WEBHOOK_QUEUE, withBody(job));
     }
 
+    // Held in the queue's delay set and promoted by WebhookRetryScheduler once due
+    public void scheduleWebhookRetry(DeliverWebhookJob job, Instant dueAt) {
+        log.info("Scheduling webhook retry {} for log {} at {}", job.getAttemptNumber(), job.getExistingLogId(), dueAt);
+        jobQueue.enqueueAt(WEBHOOK_QUEUE, job, dueAt);
+    }
+
+    // Written to the outbox in the caller's transaction, so the webhooks commit with the status change they announce
+    @Transactional
+    public void enqueueWebhookJobs(List<DeliverWebhookJob> jobs) {
+        if (jobs.isEmpty()) return;
+        log.info("Enqueuing {} webhook jobs", jobs.size());
+        jobs.forEach(job -> addToOutbox(WEBHOOK_QUEUE, withBody(job)));
+    }
+
+    @Transactional
     public void enqueueRefundJob(ProcessRefundJob job) {
         log.info("Enqueuing refund job: {}", job.getRefundId());
-        redisTemplate.opsForList().rightPush(REFUND_QUEUE, job);
+        addToOutbox(REFUND_QUEUE, job);
+    }
+
+    // The payload is serialized exactly once; every delivery attempt signs and sends these bytes
+    private DeliverWebhookJob withBody(DeliverWebhookJob job) {
+        if (job.getBody() == null && job.getPayload() != null) {
+            try {
+                job.setBody(objectMapper.writeValueAsBytes(job.getPayload()));
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Webhook payload is not serializable", e);
+            }
+        }
+        return job;
+    }
+
+    private void addToOutbox(String queueName, Object job) {
+        OutboxJob outboxJob = new OutboxJob();
+        outboxJob.setQueueName(queueName);
+        outboxJob.setJob(jobCodec.encode(job));
+        outboxJobRepository.save(outboxJob);
     }
 
     public Map<String, Object> getQueueStatus() {
@@ -45,25 +94,54 @@ public class JobService {
         long pendingRefunds = getQueueSize(REFUND_QUEUE);
         
         status.put("pending", pendingPayments + pendingWebhooks + pendingRefunds);
+        // Webhook retries waiting for their due time
+        status.put("scheduled", jobQueue.delayedSize(WEBHOOK_QUEUE));
+        // Committed but not yet relayed to the queues
+        status.put("outbox", outboxJobRepository.count());
+        // Undecodable jobs and jobs that failed app.worker.max-attempts times
+        status.put("deadLetter", jobQueue.deadLetterSize(PAYMENT_QUEUE)
+            + jobQueue.deadLetterSize(WEBHOOK_QUEUE)
+            + jobQueue.deadLetterSize(REFUND_QUEUE));
         status.put("queues", Map.of(
             "payment", pendingPayments,
             "webhook", pendingWebhooks,
             "refund", pendingRefunds
         ));
-        
-        // Note: "processing", "completed", "failed" are harder to track with simple Redis Lists 
-        // unless we move items to a "processing" list (RPOPLPUSH).
-        // For this assignment, "pending" is the main one from Redis.
-        // "processing"/"completed"/"failed" might need application-level stats or just return 0/mock for now if not tracking via DB states.
-        // However, the requirements say "Query the job queue (Redis) to get statistics".
-        // Use Mock or DB counts for others? 
-        // "completed" and "failed" can be fetched from DB (e.g. payments with success/failed, webhooks with success/failed).
-        
+        status.put("throughput", Map.of(
+            "payment", getQueueStats(PAYMENT_QUEUE),
+            "webhook", getQueueStats(WEBHOOK_QUEUE),
+            "refund", getQueueStats(REFUND_QUEUE)
+        ));
+
+        // Jobs taken but not yet acked, per consumer
+        Map<String, Map<String, Long>> processing = Map.of(
+            "payment", jobQueue.pendingByConsumer(PAYMENT_QUEUE),
+            "webhook", jobQueue.pendingByConsumer(WEBHOOK_QUEUE),
+            "refund", jobQueue.pendingByConsumer(REFUND_QUEUE)
+        );
+        status.put("processing", processing.values().stream()
+            .flatMap(consumers -> consumers.values().stream())
+            .mapToLong(Long::longValue)
+            .sum());
+        status.put("consumers", processing);
+
         return status;
     }
     
+    public static String statsKeyFor(String queueName) {
+        return queueName + ":stats";
+    }
+
+    // Totals accumulated by every worker pod's WorkerStatsReporter
+    private Map<String, Long> getQueueStats(String queueName) {
+        Map<Object, Object> raw = stringRedisTemplate.opsForHash().entries(statsKeyFor(queueName));
+        Map<String, Long> stats = new HashMap<>();
+        stats.put("processed", Long.parseLong((String) raw.getOrDefault("processed", "0")));
+        stats.put("failed", Long.parseLong((String) raw.getOrDefault("failed", "0")));
+        return stats;
+    }
+
     private long getQueueSize(String queueName) {
-        Long size = redisTemplate.opsForList().size(queueName);
-        return size != null ? size : 0;
+        return jobQueue.size(queueName);
     }
 }
@@ -0,0 +1,163 @@
+package com.gateway.services;
+
+import com.gateway.models.Merchant;
+import com.gateway.repositories.MerchantRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process cache of merchants, indexed by id and by API key.
+ *
+ * Entries expire after {@code app.merchant-cache.ttl-ms} and the cache holds at most
+ * {@code app.merchant-cache.max-size} merchants. Changes are announced on a Redis channel so every
+ * API and worker node drops its copy (and its webhook signers) straight away.
+ *
+ * The set of existing API keys is also kept and refreshed periodically, so lookups of unknown keys
+ * (credential stuffing, typos) are rejected without touching the database.
+ */
+@Component
+@Slf4j
+public class MerchantCache implements MessageListener {
+
+    public static final String INVALIDATION_CHANNEL = "merchant:invalidate";
+
+    private record Entry(Merchant merchant, long expiresAt) {}
+
+    private final MerchantRepository merchantRepository;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final WebhookSigner webhookSigner;
+
+    private final Map<UUID, Entry> byId = new ConcurrentHashMap<>();
+    private final Map<String, UUID> idByApiKey = new ConcurrentHashMap<>();
+
+    // Null until first loaded; lookups then fall through to the database
+    private volatile Set<String> knownApiKeys;
+
+    // Bumped on every invalidation so a load racing with one is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    @Value("${app.merchant-cache.ttl-ms:300000}")
+    private long ttlMs;
+
+    @Value("${app.merchant-cache.max-size:10000}")
+    private int maxSize;
+
+    public MerchantCache(MerchantRepository merchantRepository,
+                         StringRedisTemplate stringRedisTemplate,
+                         WebhookSigner webhookSigner,
+                         RedisMessageListenerContainer listenerContainer) {
+        this.merchantRepository = merchantRepository;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.webhookSigner = webhookSigner;
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    public Optional<Merchant> getById(UUID id) {
+        Merchant cached = lookup(id);
+        if (cached != null) return Optional.of(cached);
+
+        long seen = generation.get();
+        Optional<Merchant> loaded = merchantRepository.findById(id);
+        loaded.ifPresent(merchant -> put(merchant, seen));
+        return loaded;
+    }
+
+    public Optional<Merchant> getByApiKey(String apiKey) {
+        Set<String> known = knownApiKeys;
+        if (known != null && !known.contains(apiKey)) return Optional.empty();
+
+        UUID id = idByApiKey.get(apiKey);
+        Merchant cached = id != null ? lookup(id) : null;
+        if (cached != null && apiKey.equals(cached.getApiKey())) return Optional.of(cached);
+
+        long seen = generation.get();
+        Optional<Merchant> loaded = merchantRepository.findByApiKey(apiKey);
+        loaded.ifPresent(merchant -> put(merchant, seen));
+        return loaded;
+    }
+
+    @Scheduled(fixedDelayString = "${app.merchant-cache.key-refresh-ms:60000}")
+    public void refreshKnownApiKeys() {
+        try {
+            knownApiKeys = Set.copyOf(merchantRepository.findAllApiKeys());
+        } catch (Exception e) {
+            log.error("Failed to refresh known API keys", e);
+        }
+    }
+
+    /** Drops the merchant here and, through Redis, on every other node. */
+    public void invalidate(UUID merchantId) {
+        evict(merchantId);
+        try {
+            stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL, merchantId.toString());
+        } catch (Exception e) {
+            // Other nodes catch up when their entry expires
+            log.error("Failed to publish invalidation for merchant {}", merchantId, e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            evict(UUID.fromString(new String(message.getBody(), StandardCharsets.UTF_8)));
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring malformed merchant invalidation");
+        }
+    }
+
+    private Merchant lookup(UUID id) {
+        Entry entry = byId.get(id);
+        if (entry == null) return null;
+        if (entry.expiresAt() < System.currentTimeMillis()) {
+            byId.remove(id, entry);
+            return null;
+        }
+        return entry.merchant();
+    }
+
+    private void put(Merchant merchant, long seenGeneration) {
+        if (generation.get() != seenGeneration) return;
+        byId.put(merchant.getId(), new Entry(merchant, System.currentTimeMillis() + ttlMs));
+        idByApiKey.put(merchant.getApiKey(), merchant.getId());
+        if (byId.size() > maxSize) {
+            evictOverflow();
+        }
+    }
+
+    private void evict(UUID merchantId) {
+        generation.incrementAndGet();
+        Entry entry = byId.remove(merchantId);
+        if (entry != null) {
+            idByApiKey.remove(entry.merchant().getApiKey(), merchantId);
+        }
+        webhookSigner.invalidate(merchantId);
+    }
+
+    private void evictOverflow() {
+        // Expired entries go first, then arbitrary ones until the cache is back under its bound
+        long now = System.currentTimeMillis();
+        byId.values().removeIf(entry -> entry.expiresAt() < now);
+        Iterator<Map.Entry<UUID, Entry>> it = byId.entrySet().iterator();
+        while (byId.size() > maxSize && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+        idByApiKey.values().removeIf(id -> !byId.containsKey(id));
+    }
+}
@@ -8,6 +8,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -17,6 +18,7 @@ import java.util.UUID;
 public class MerchantService {
 
     private final MerchantRepository merchantRepository;
+    private final MerchantCache merchantCache;
 
     @Value("${TEST_MERCHANT_EMAIL:test@example.com}")
     private String testEmail;
@@ -40,17 +42,45 @@ public class MerchantService {
             merchant.setName("Test Merchant");
             merchant.setEmail(testEmail);
             merchant.setApiKey(testApiKey);
-            merchant.setApiSecret(testApiSecret);
+            merchant.setApiSecretHash(ApiSecrets.hash(testApiSecret));
             merchant.setActive(true);
             merchantRepository.save(merchant);
             log.info("Seeded Test Merchant: {}", merchant.getId());
         } else {
             log.info("Test Merchant already exists.");
         }
+        hashPlaintextSecrets();
+    }
+
+    // One-off migration of merchants created while secrets were stored in plaintext
+    private void hashPlaintextSecrets() {
+        List<Merchant> plaintext = merchantRepository.findByApiSecretHashIsNull();
+        for (Merchant merchant : plaintext) {
+            if (merchant.getApiSecret() == null) continue;
+            merchant.setApiSecretHash(ApiSecrets.hash(merchant.getApiSecret()));
+            merchant.setApiSecret(null);
+        }
+        if (!plaintext.isEmpty()) {
+            merchantRepository.saveAll(plaintext);
+            log.info("Hashed API secrets of {} merchants", plaintext.size());
+        }
+    }
+
+    /**
+     * Returns the merchant owning {@code apiKey} if {@code apiSecret} matches its stored hash.
+     * Unknown keys are rejected by the cache without a query.
+     */
+    public Optional<Merchant> authenticate(String apiKey, String apiSecret) {
+        return merchantCache.getByApiKey(apiKey)
+                .filter(merchant -> ApiSecrets.matches(apiSecret, merchant.getApiSecretHash()));
     }
 
     public Optional<Merchant> getMerchantByApiKey(String apiKey) {
-        return merchantRepository.findByApiKey(apiKey);
+        return merchantCache.getByApiKey(apiKey);
+    }
+
+    public Optional<Merchant> getMerchant(UUID merchantId) {
+        return merchantCache.getById(merchantId);
     }
 
     public Merchant updateWebhookConfig(java.util.UUID merchantId, String url, String secret) {
@@ -59,6 +89,9 @@ public class MerchantService {
         if (secret != null && !secret.isEmpty()) {
             merchant.setWebhookSecret(secret);
         }
-        return merchantRepository.save(merchant);
+        Merchant saved = merchantRepository.save(merchant);
+        // Drop cached copies (and signers built from the old secret) on every node
+        merchantCache.invalidate(merchantId);
+        return saved;
     }
 }
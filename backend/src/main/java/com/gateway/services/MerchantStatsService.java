@@ -0,0 +1,96 @@
+package com.gateway.services;
+
+import com.gateway.models.MerchantStats;
+import com.gateway.models.Payment;
+import com.gateway.repositories.MerchantStatsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Per-merchant payment counters behind {@code /api/v1/payments/stats}. Updates join the caller's
+ * transaction, so the counters move together with the payment rows.
+ *
+ * A payment is counted once it reaches a final status, by the worker batch that decides it, so
+ * creating a payment does not wait on the merchant's counter row.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MerchantStatsService {
+
+    private static final Set<String> FINAL_STATUSES = Set.of("success", "failed");
+
+    private final MerchantStatsRepository merchantStatsRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Applies status changes to the counters. {@code previousStatuses} holds each payment's status
+     * before the change, so a payment that is processed twice is only counted once.
+     */
+    @Transactional
+    public void recordStatusChanges(List<Payment> payments, Map<String, String> previousStatuses) {
+        // One increment per merchant per batch, in merchant order so concurrent batches lock the rows in the same order
+        Map<UUID, long[]> deltas = new TreeMap<>();
+        for (Payment payment : payments) {
+            String previous = previousStatuses.get(payment.getId());
+            long newlyFinal = !isFinal(previous) && isFinal(payment.getStatus()) ? 1 : 0;
+            long successes = ("success".equalsIgnoreCase(payment.getStatus()) ? 1 : 0)
+                    - ("success".equalsIgnoreCase(previous) ? 1 : 0);
+            if (newlyFinal == 0 && successes == 0) continue;
+
+            long[] delta = deltas.computeIfAbsent(payment.getMerchantId(), id -> new long[3]);
+            delta[0] += newlyFinal;
+            delta[1] += successes;
+            delta[2] += successes * payment.getAmount();
+        }
+        deltas.forEach((merchantId, delta) ->
+                merchantStatsRepository.increment(merchantId.toString(), delta[0], delta[1], delta[2]));
+    }
+
+    public Map<String, Object> getStats(UUID merchantId) {
+        MerchantStats stats = merchantStatsRepository.findById(merchantId).orElseGet(MerchantStats::new);
+
+        double successRate = stats.getTotalTransactions() > 0
+                ? ((double) stats.getSuccessCount() / stats.getTotalTransactions()) * 100
+                : 0.0;
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("totalTransactions", stats.getTotalTransactions());
+        result.put("totalAmount", stats.getSuccessAmount());
+        result.put("successRate", successRate);
+        return result;
+    }
+
+    /**
+     * Recomputes the counters from the payments table, one merchant per transaction. The merchant's
+     * row is locked before the payments are summed, so increments from payments committing in the
+     * meantime wait and are applied on top instead of being overwritten.
+     */
+    public int rebuild() {
+        List<String> merchantIds = merchantStatsRepository.findMerchantIdsWithPayments();
+        for (String merchantId : merchantIds) {
+            transactionTemplate.executeWithoutResult(status -> {
+                merchantStatsRepository.lockRow(merchantId);
+                MerchantStatsRepository.Totals totals = merchantStatsRepository.sumPayments(merchantId);
+                merchantStatsRepository.overwrite(merchantId, totals.getTransactions(),
+                        totals.getSuccesses(), totals.getSuccessAmount());
+            });
+        }
+        log.info("Rebuilt merchant stats of {} merchants", merchantIds.size());
+        return merchantIds.size();
+    }
+
+    private static boolean isFinal(String status) {
+        return status != null && FINAL_STATUSES.contains(status.toLowerCase());
+    }
+}
@@ -1,23 +1,29 @@
 package com.gateway.services;
 
+import com.gateway.dto.CursorPage;
+import com.gateway.dto.PageCursor;
 import com.gateway.models.Merchant;
 import com.gateway.models.Order;
 import com.gateway.repositories.OrderRepository;
 import lombok.RequiredArgsConstructor;
-import org.apache.commons.lang3.RandomStringUtils;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 public class OrderService {
 
     private final OrderRepository orderRepository;
+    private final IdGenerator idGenerator;
 
     public Order createOrder(Merchant merchant, Integer amount, String currency, String receipt, Map<String, String> notes) {
         Order order = new Order();
-        order.setId(generateOrderId());
+        order.setId(idGenerator.orderId());
         order.setMerchantId(merchant.getId());
         order.setAmount(amount);
         order.setCurrency(currency != null ? currency : "INR");
@@ -32,13 +38,12 @@ public class OrderService {
         return orderRepository.findById(id).orElse(null);
     }
 
-    private String generateOrderId() {
-        // "order_" + 16 alphanumeric
-        // We need a loop to ensure uniqueness, though collision is rare.
-        String id;
-        do {
-            id = "order_" + RandomStringUtils.randomAlphanumeric(16);
-        } while (orderRepository.existsById(id));
-        return id;
+    public CursorPage<Order> getOrdersByMerchant(UUID merchantId, String status, PageCursor cursor, int limit) {
+        // One extra row tells whether another page follows
+        Pageable fetch = PageRequest.of(0, limit + 1);
+        List<Order> rows = status != null
+                ? orderRepository.findPageByStatusAfter(merchantId, status, cursor.createdAt(), cursor.id(), fetch)
+                : orderRepository.findPageAfter(merchantId, cursor.createdAt(), cursor.id(), fetch);
+        return CursorPage.of(rows, limit, Order::getCreatedAt, Order::getId);
     }
 }
@@ -1,13 +1,16 @@
 package com.gateway.services;
 
 import com.gateway.dto.CreatePaymentRequest;
+import com.gateway.dto.CursorPage;
+import com.gateway.dto.PageCursor;
 import com.gateway.models.Order;
 import com.gateway.models.Payment;
 import com.gateway.repositories.PaymentRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.RandomStringUtils;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -24,6 +27,7 @@ import org.springframework.transaction.annotation.Transactional;
 public class PaymentService {
 
     private final PaymentRepository paymentRepository;
+    private final IdGenerator idGenerator;
     private final ValidationService validationService;
 
     @Transactional
@@ -41,11 +45,12 @@ public class PaymentService {
 
     private final IdempotencyKeyRepository idempotencyKeyRepository;
     private final JobService jobService;
+    private final MerchantStatsService merchantStatsService;
 
     @Transactional
     public Payment createPayment(Order order, CreatePaymentRequest request, String idempotencyKey) {
         Payment payment = new Payment();
-        payment.setId(generatePaymentId());
+        payment.setId(idGenerator.paymentId());
         payment.setOrderId(order.getId());
         payment.setMerchantId(order.getMerchantId());
         payment.setAmount(order.getAmount());
@@ -58,10 +63,7 @@ public class PaymentService {
         } else if ("card".equalsIgnoreCase(request.getMethod()) && request.getCard() != null) {
             String network = validationService.detectCardNetwork(request.getCard().getNumber());
             payment.setCardNetwork(network);
-            String num = request.getCard().getNumber().replaceAll("[\\s-]", "");
-            if (num.length() >= 4) {
-                payment.setCardLast4(num.substring(num.length() - 4));
-            }
+            payment.setCardLast4(validationService.lastDigits(request.getCard().getNumber(), 4));
         }
 
         Payment savedPayment = paymentRepository.save(payment);
@@ -101,44 +103,18 @@ public class PaymentService {
         return paymentRepository.findById(id).orElse(null);
     }
 
-    public java.util.List<Payment> getPaymentsByMerchant(java.util.UUID merchantId) {
-        return paymentRepository.findByMerchantId(merchantId);
+    public CursorPage<Payment> getPaymentsByMerchant(java.util.UUID merchantId, String status, PageCursor cursor, int limit) {
+        // One extra row tells whether another page follows
+        Pageable fetch = PageRequest.of(0, limit + 1);
+        java.util.List<Payment> rows = status != null
+                ? paymentRepository.findPageByStatusAfter(merchantId, status, cursor.createdAt(), cursor.id(), fetch)
+                : paymentRepository.findPageAfter(merchantId, cursor.createdAt(), cursor.id(), fetch);
+        return CursorPage.of(rows, limit, Payment::getCreatedAt, Payment::getId);
     }
 
-    private String generatePaymentId() {
-        String id;
-        do {
-            id = "pay_" + RandomStringUtils.randomAlphanumeric(16);
-        } while (paymentRepository.existsById(id));
-        return id;
-    }
- // Add this method to your existing PaymentService class
+    // O(1): reads the merchant's running counters instead of scanning its payments
     public java.util.Map<String, Object> getMerchantStats(java.util.UUID merchantId) {
-        java.util.List<Payment> payments = paymentRepository.findByMerchantId(merchantId);
-        
-        long totalTransactions = payments.size();
-        
-        // Calculate total volume: Sum only 'success' (case-insensitive) payments
-        long totalAmount = payments.stream()
-                .filter(p -> "success".equalsIgnoreCase(p.getStatus()))
-                .mapToLong(Payment::getAmount)
-                .sum();
-
-        // Calculate success rate: (successful / total) * 100
-        long successCount = payments.stream()
-                .filter(p -> "success".equalsIgnoreCase(p.getStatus()))
-                .count();
-        
-        double successRate = totalTransactions > 0 
-                ? ((double) successCount / totalTransactions) * 100 
-                : 0.0;
-
-        java.util.Map<String, Object> stats = new java.util.HashMap<>();
-        stats.put("totalTransactions", totalTransactions);
-        stats.put("totalAmount", totalAmount);
-        stats.put("successRate", successRate);
-        
-        return stats;
+        return merchantStatsService.getStats(merchantId);
     }
 }
 
@@ -0,0 +1,113 @@
+package com.gateway.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.gateway.models.Payment;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Fan-out of payment status changes to the checkout connections held by this node.
+ *
+ * {@code PaymentWorker} publishes each committed batch of transitions on a Redis channel as a
+ * JSON array of payments (serialized as the public payment endpoint returns them). Every API node
+ * receives it once and hands each payment to the SSE and long-poll subscribers it holds for that id,
+ * so a waiting checkout gets one push instead of polling.
+ */
+@Component
+@Slf4j
+public class PaymentStatusEvents implements MessageListener {
+
+    public static final String CHANNEL = "payment:status";
+
+    private static final Set<String> FINAL_STATUSES = Set.of("success", "failed");
+
+    // Writes to slow clients must not hold up the Redis listener thread
+    private static final Executor DISPATCH_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    /** A payment as pushed to subscribers: its status and public JSON. */
+    public record Update(String paymentId, String status, String json) {
+        public boolean isFinal() {
+            return FINAL_STATUSES.contains(status);
+        }
+    }
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, Set<Consumer<Update>>> subscribers = new ConcurrentHashMap<>();
+
+    public PaymentStatusEvents(StringRedisTemplate stringRedisTemplate,
+                               ObjectMapper objectMapper,
+                               RedisMessageListenerContainer listenerContainer) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.objectMapper = objectMapper;
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    /** Announces the new status of {@code payments} to every node. Call after the change is committed. */
+    public void publish(List<Payment> payments) {
+        if (payments.isEmpty()) return;
+        try {
+            // One message per batch
+            stringRedisTemplate.convertAndSend(CHANNEL, objectMapper.writeValueAsString(payments));
+        } catch (Exception e) {
+            // Subscribers still get the final status when their wait times out
+            log.error("Failed to publish status of {} payments", payments.size(), e);
+        }
+    }
+
+    /**
+     * Calls {@code listener} with every update of the payment received until the returned handle
+     * is run. Subscribe before reading the current status so no transition is missed in between.
+     */
+    public Runnable subscribe(String paymentId, Consumer<Update> listener) {
+        subscribers.computeIfAbsent(paymentId, id -> ConcurrentHashMap.newKeySet()).add(listener);
+        return () -> subscribers.computeIfPresent(paymentId, (id, listeners) -> {
+            listeners.remove(listener);
+            return listeners.isEmpty() ? null : listeners;
+        });
+    }
+
+    /** Parses a payment JSON document (as served by the public endpoint) into an update. */
+    public Update toUpdate(byte[] json) throws IOException {
+        JsonNode payment = objectMapper.readTree(json);
+        return new Update(payment.path("id").asText(), payment.path("status").asText(),
+                new String(json, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            JsonNode batch = objectMapper.readTree(message.getBody());
+            if (!(batch instanceof ArrayNode payments)) return;
+            for (JsonNode payment : payments) {
+                String paymentId = payment.path("id").asText();
+                Set<Consumer<Update>> listeners = subscribers.get(paymentId);
+                if (listeners == null) continue;
+                Update update = new Update(paymentId, payment.path("status").asText(), payment.toString());
+                for (Consumer<Update> listener : listeners) {
+                    DISPATCH_EXECUTOR.execute(() -> listener.accept(update));
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Ignoring malformed payment status message");
+        }
+    }
+}
@@ -1,13 +1,16 @@
 package com.gateway.services;
 
 import com.gateway.dto.CreateRefundRequest;
+import com.gateway.dto.CursorPage;
+import com.gateway.dto.PageCursor;
 import com.gateway.jobs.ProcessRefundJob;
 import com.gateway.models.Payment;
 import com.gateway.models.Refund;
 import com.gateway.repositories.PaymentRepository;
 import com.gateway.repositories.RefundRepository;
 import lombok.RequiredArgsConstructor;
-import org.apache.commons.lang3.RandomStringUtils;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,6 +25,7 @@ public class RefundService {
     private final RefundRepository refundRepository;
     private final PaymentRepository paymentRepository;
     private final JobService jobService;
+    private final IdGenerator idGenerator;
 
     @Transactional
     public Refund createRefund(String paymentId, UUID merchantId, CreateRefundRequest request) {
@@ -47,7 +51,7 @@ public class RefundService {
 
         // 3. Create Refund Record
         Refund refund = new Refund();
-        refund.setId("rfnd_" + RandomStringUtils.randomAlphanumeric(16));
+        refund.setId(idGenerator.refundId());
         refund.setPaymentId(paymentId);
         refund.setMerchantId(merchantId);
         refund.setAmount(request.getAmount());
@@ -68,7 +72,12 @@ public class RefundService {
                 .orElse(null);
     }
 
-    public List<Refund> getRefundsByMerchant(UUID merchantId) {
-        return refundRepository.findByMerchantId(merchantId);
+    public CursorPage<Refund> getRefundsByMerchant(UUID merchantId, String status, PageCursor cursor, int limit) {
+        // One extra row tells whether another page follows
+        Pageable fetch = PageRequest.of(0, limit + 1);
+        List<Refund> rows = status != null
+                ? refundRepository.findPageByStatusAfter(merchantId, status, cursor.createdAt(), cursor.id(), fetch)
+                : refundRepository.findPageAfter(merchantId, cursor.createdAt(), cursor.id(), fetch);
+        return CursorPage.of(rows, limit, Refund::getCreatedAt, Refund::getId);
     }
 }
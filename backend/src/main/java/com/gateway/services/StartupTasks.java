@@ -0,0 +1,40 @@
+package com.gateway.services;
+
+import com.gateway.models.StartupTask;
+import com.gateway.repositories.StartupTaskRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+/**
+ * Runs backfills and data migrations that must happen once per database, not once per pod.
+ *
+ * Completion is recorded in the {@code startup_tasks} table only after the task succeeds, so a
+ * task that fails or is interrupted runs again on the next start. Pods starting together may run
+ * the same task side by side, so tasks must be idempotent.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StartupTasks {
+
+    private final StartupTaskRepository startupTaskRepository;
+
+    /** Runs {@code task} unless a task named {@code name} has already completed. */
+    public void runOnce(String name, Runnable task) {
+        if (startupTaskRepository.existsById(name)) return;
+
+        log.info("Running startup task {}", name);
+        task.run();
+
+        StartupTask marker = new StartupTask();
+        marker.setName(name);
+        try {
+            startupTaskRepository.saveAndFlush(marker);
+        } catch (DataIntegrityViolationException e) {
+            // Another pod completed it at the same time
+        }
+        log.info("Startup task {} completed", name);
+    }
+}
@@ -1,56 +1,69 @@
 package com.gateway.services;
 
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import java.time.YearMonth;
 import java.util.regex.Pattern;
 
 @Service
+@RequiredArgsConstructor
 public class ValidationService {
 
     private static final Pattern VPA_PATTERN = Pattern.compile("^[a-zA-Z0-9._-]+@[a-zA-Z0-9]+$");
 
+    private final BinTable binTable;
+
     public boolean validateVPA(String vpa) {
         if (vpa == null || vpa.isEmpty()) return false;
         return VPA_PATTERN.matcher(vpa).matches();
     }
 
+    // Single pass over the chars, right to left: separators skipped, digits counted and summed
     public boolean validateLuhn(String cardNumber) {
         if (cardNumber == null) return false;
-        String sanitized = cardNumber.replaceAll("[\\s-]", "");
-        if (!sanitized.matches("\\d{13,19}")) return false;
 
         int sum = 0;
-        boolean alternate = false;
-        for (int i = sanitized.length() - 1; i >= 0; i--) {
-            int n = Integer.parseInt(sanitized.substring(i, i + 1));
-            if (alternate) {
+        int digits = 0;
+        for (int i = cardNumber.length() - 1; i >= 0; i--) {
+            char c = cardNumber.charAt(i);
+            if (isSeparator(c)) continue;
+            if (c < '0' || c > '9') return false;
+            int n = c - '0';
+            if ((digits & 1) == 1) {
                 n *= 2;
                 if (n > 9) {
                     n -= 9;
                 }
             }
             sum += n;
-            alternate = !alternate;
+            digits++;
         }
-        return (sum % 10 == 0);
+        return digits >= 13 && digits <= 19 && sum % 10 == 0;
     }
 
     public String detectCardNetwork(String cardNumber) {
-        if (cardNumber == null) return "unknown";
-        String n = cardNumber.replaceAll("[\\s-]", "");
-        
-        if (n.startsWith("4")) return "visa";
-        
-        // Mastercard: 51-55
-        if (n.matches("^5[1-5].*")) return "mastercard";
-        
-        // Amex: 34, 37
-        if (n.startsWith("34") || n.startsWith("37")) return "amex";
-        
-        // RuPay: 60, 65, 81-89
-        if (n.startsWith("60") || n.startsWith("65") || n.matches("^8[1-9].*")) return "rupay";
-        
-        return "unknown";
+        if (cardNumber == null) return BinTable.UNKNOWN;
+        return binTable.lookup(cardNumber);
+    }
+
+    /**
+     * The last {@code count} digits of the card number, ignoring separators, or null if it has fewer.
+     */
+    public String lastDigits(String cardNumber, int count) {
+        if (cardNumber == null) return null;
+        char[] last = new char[count];
+        int found = 0;
+        for (int i = cardNumber.length() - 1; i >= 0 && found < count; i--) {
+            char c = cardNumber.charAt(i);
+            if (isSeparator(c)) continue;
+            last[count - 1 - found++] = c;
+        }
+        return found == count ? new String(last) : null;
+    }
+
+    // Same separators the old sanitizing regex ([\\s-]) removed
+    private static boolean isSeparator(char c) {
+        return c == '-' || Character.isWhitespace(c);
     }
 
     public boolean validateExpiry(String monthStr, String yearStr) {
@@ -0,0 +1,68 @@
+package com.gateway.services;
+
+import com.gateway.dto.CursorPage;
+import com.gateway.dto.PageCursor;
+import com.gateway.models.WebhookLog;
+import com.gateway.repositories.WebhookLogRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Webhook log listing for the dashboard.
+ *
+ * Pages are read by keyset on (merchant_id, created_at, id), so a deep page costs the same as
+ * the first one. The total shown next to them is a count cached in Redis for a short while
+ * rather than a COUNT(*) per request; it may trail new deliveries by up to the cache TTL.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WebhookLogService {
+
+    // Placeholder id for the first page, whose cursor timestamp already sorts after every row
+    private static final UUID FIRST_PAGE_ID = new UUID(0, 0);
+
+    private final WebhookLogRepository webhookLogRepository;
+    private final StringRedisTemplate stringRedisTemplate;
+
+    @Value("${app.webhook.logs-count-ttl-ms:60000}")
+    private long countTtlMs;
+
+    public CursorPage<WebhookLog> getLogs(UUID merchantId, String status, String event, PageCursor cursor, int limit) {
+        UUID afterId = cursor == PageCursor.START ? FIRST_PAGE_ID : UUID.fromString(cursor.id());
+        // One extra row tells whether another page follows
+        List<WebhookLog> rows = webhookLogRepository.findPageAfter(
+                merchantId, status, event, cursor.createdAt(), afterId, PageRequest.of(0, limit + 1));
+        return CursorPage.of(rows, limit, WebhookLog::getCreatedAt, log -> log.getId().toString())
+                .withTotal(approximateTotal(merchantId, status, event));
+    }
+
+    /**
+     * Number of logs matching the filters, recounted at most once per TTL per filter combination.
+     */
+    public long approximateTotal(UUID merchantId, String status, String event) {
+        String key = "webhook_logs:count:" + merchantId + ":" + (status != null ? status : "") + ":" + (event != null ? event : "");
+        try {
+            String cached = stringRedisTemplate.opsForValue().get(key);
+            if (cached != null) return Long.parseLong(cached);
+        } catch (Exception e) {
+            log.warn("Webhook log count cache unavailable: {}", e.getMessage());
+        }
+
+        long total = webhookLogRepository.countFiltered(merchantId, status, event);
+        try {
+            stringRedisTemplate.opsForValue().set(key, Long.toString(total), Duration.ofMillis(countTtlMs));
+        } catch (Exception e) {
+            log.warn("Failed to cache webhook log count: {}", e.getMessage());
+        }
+        return total;
+    }
+}
@@ -0,0 +1,78 @@
+package com.gateway.services;
+
+import org.apache.commons.codec.binary.Hex;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * HMAC-SHA256 signatures for webhook bodies.
+ *
+ * Initialised {@link Mac} instances are kept per merchant secret and reused, so signing does no key
+ * setup. Deliveries run on short-lived virtual threads, so the instances are pooled per secret
+ * rather than held in thread-locals. An entry is rebuilt when the merchant's secret no longer matches
+ * and dropped by {@link #invalidate(UUID)} when the secret is rotated.
+ */
+@Service
+public class WebhookSigner {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final Map<UUID, Signer> signers = new ConcurrentHashMap<>();
+
+    /** Returns the hex signature of {@code body}, or an empty string when the merchant has no secret. */
+    public String sign(UUID merchantId, String secret, byte[] body) {
+        if (secret == null) return "";
+        Signer signer = signers.get(merchantId);
+        if (signer == null || !signer.secret.equals(secret)) {
+            signer = new Signer(secret);
+            signers.put(merchantId, signer);
+        }
+        return signer.sign(body);
+    }
+
+    public void invalidate(UUID merchantId) {
+        signers.remove(merchantId);
+    }
+
+    private static final class Signer {
+
+        private final String secret;
+        private final SecretKeySpec key;
+        private final Queue<Mac> idle = new ConcurrentLinkedQueue<>();
+
+        private Signer(String secret) {
+            this.secret = secret;
+            this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        }
+
+        private String sign(byte[] body) {
+            Mac mac = idle.poll();
+            if (mac == null) mac = newMac();
+            try {
+                // doFinal resets the Mac for the next caller
+                return Hex.encodeHexString(mac.doFinal(body));
+            } finally {
+                idle.offer(mac);
+            }
+        }
+
+        private Mac newMac() {
+            try {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Cannot initialise " + ALGORITHM, e);
+            }
+        }
+    }
+}
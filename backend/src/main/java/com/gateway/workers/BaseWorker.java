@@ -1,41 +1,218 @@
 package com.gateway.workers;
 
-import org.springframework.data.redis.core.RedisTemplate;
+import com.gateway.queue.JobQueue;
+import com.gateway.queue.QueuedJob;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Reliable queue consumer.
+ *
+ * Jobs taken from the {@link JobQueue} stay leased to the consumer until the future returned by
+ * {@link #process(Object)} completes, and are then acked. The consumer renews its lease while it
+ * runs; {@link QueueLeaseReaper} requeues the jobs of expired consumers, so a crashed pod never
+ * loses a job.
+ */
+@Slf4j
 public abstract class BaseWorker implements Runnable {
 
-    protected final RedisTemplate<String, Object> redisTemplate;
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(5);
+
+    // Delayed completions fire on the JDK's shared delay scheduler and run on virtual threads
+    private static final Executor COMPLETION_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    protected final JobQueue jobQueue;
     protected final String queueName;
     private volatile boolean running = true;
 
-    public BaseWorker(RedisTemplate<String, Object> redisTemplate, String queueName) {
-        this.redisTemplate = redisTemplate;
+    // Throughput counters across all consumers of this worker, drained by WorkerStatsReporter
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    @Value("${app.worker.visibility-timeout-ms:60000}")
+    private long visibilityTimeoutMs;
+
+    @Value("${app.worker.max-in-flight:1000}")
+    private int maxInFlight;
+
+    @Value("${app.worker.batch-size:1}")
+    private int batchSize;
+
+    public BaseWorker(JobQueue jobQueue, String queueName) {
+        this.jobQueue = jobQueue;
         this.queueName = queueName;
     }
 
     @Override
     public void run() {
+        // Consumer state is local so the same bean can be run by several threads
+        String consumerId = newConsumerId();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long leaseRenewedAt = 0;
+
+        // Neither wait below outlasts a sixth of the visibility timeout, so the lease is renewed at
+        // least every two thirds of it, also while the consumer is parked at max-in-flight
+        long waitMs = Math.max(visibilityTimeoutMs / 6, 1);
+        Duration pollTimeout = Duration.ofMillis(Math.min(POLL_TIMEOUT.toMillis(), waitMs));
+
         while (running) {
+            int permitsHeld = 0;
             try {
-                // BRPOP with 5 seconds timeout
-                Object job = redisTemplate.opsForList().leftPop(queueName, Duration.ofSeconds(5));
-                if (job != null) {
-                    process(job);
+                long now = System.currentTimeMillis();
+                if (now - leaseRenewedAt > visibilityTimeoutMs / 3) {
+                    jobQueue.renewLease(queueName, consumerId);
+                    leaseRenewedAt = now;
+                }
+
+                if (!inFlight.tryAcquire(waitMs, TimeUnit.MILLISECONDS)) continue;
+                permitsHeld = 1;
+                while (permitsHeld < batchSize && inFlight.tryAcquire()) {
+                    permitsHeld++;
+                }
+
+                List<QueuedJob> batch = jobQueue.take(queueName, consumerId, permitsHeld, pollTimeout);
+                if (!batch.isEmpty()) {
+                    // One permit per job is handed over and returned when the batch completes
+                    inFlight.release(permitsHeld - batch.size());
+                    permitsHeld = 0;
+                    dispatch(consumerId, batch, inFlight);
                 }
             } catch (Exception e) {
-                e.printStackTrace();
+                log.error("Error consuming from {}", queueName, e);
                 // Sleep to avoid tight loop on persistent error
                 try { Thread.sleep(1000); } catch (InterruptedException ie) {}
+            } finally {
+                if (permitsHeld > 0) inFlight.release(permitsHeld);
+            }
+        }
+
+        awaitInFlight(consumerId, inFlight);
+        release(consumerId);
+    }
+
+    /**
+     * Handles one job. The job is acked when the returned future completes normally and put back
+     * on the queue when it completes exceptionally.
+     */
+    protected abstract CompletableFuture<Void> process(Object job);
+
+    /**
+     * Handles a batch of up to {@code app.worker.batch-size} jobs taken in one round trip. The
+     * whole batch is acked (or requeued) together. Workers override this to load and persist
+     * the batch in bulk; by default each job is processed individually.
+     */
+    protected CompletableFuture<Void> processBatch(List<Object> jobs) {
+        CompletableFuture<?>[] completions = new CompletableFuture<?>[jobs.size()];
+        for (int i = 0; i < jobs.size(); i++) {
+            try {
+                completions[i] = process(jobs.get(i));
+            } catch (Exception e) {
+                completions[i] = CompletableFuture.failedFuture(e);
+            }
+        }
+        return CompletableFuture.allOf(completions);
+    }
+
+    /**
+     * Runs {@code completion} after {@code delayMs} without holding the consumer thread, so a
+     * single consumer can keep many jobs in flight while they wait.
+     */
+    protected CompletableFuture<Void> completeAfter(long delayMs, Runnable completion) {
+        return CompletableFuture.runAsync(completion,
+                CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS, COMPLETION_EXECUTOR));
+    }
+
+    private void dispatch(String consumerId, List<QueuedJob> batch, Semaphore inFlight) {
+        CompletableFuture<Void> completion;
+        try {
+            List<Object> jobs = new ArrayList<>(batch.size());
+            for (QueuedJob job : batch) {
+                jobs.add(job.getJob());
+            }
+            completion = processBatch(jobs);
+        } catch (Exception e) {
+            completion = CompletableFuture.failedFuture(e);
+        }
+
+        completion.whenComplete((result, error) -> {
+            try {
+                if (error == null) {
+                    jobQueue.ack(queueName, consumerId, batch);
+                    processed.add(batch.size());
+                } else {
+                    log.error("Error processing job from {}", queueName, error);
+                    failed.add(batch.size());
+                    batch.forEach(job -> nack(consumerId, job));
+                }
+            } catch (Exception e) {
+                log.error("Failed to ack job on {}", queueName, e);
+            } finally {
+                inFlight.release(batch.size());
+            }
+        });
+    }
+
+    private void nack(String consumerId, QueuedJob job) {
+        try {
+            jobQueue.nack(queueName, consumerId, job);
+        } catch (Exception e) {
+            // Job stays leased and is requeued by the reaper once the lease expires
+            log.error("Failed to requeue job on {}", queueName, e);
+        }
+    }
+
+    private void awaitInFlight(String consumerId, Semaphore inFlight) {
+        // Keep the lease alive while in-flight jobs finish so the reaper does not requeue them
+        try {
+            jobQueue.renewLease(queueName, consumerId);
+            if (!inFlight.tryAcquire(maxInFlight, visibilityTimeoutMs / 2, TimeUnit.MILLISECONDS)) {
+                log.warn("Consumer {} stopped with jobs still in flight; they will be requeued", consumerId);
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Failed to renew lease of consumer {}", consumerId, e);
         }
     }
 
-    protected abstract void process(Object job);
+    private void release(String consumerId) {
+        try {
+            jobQueue.release(queueName, consumerId);
+            log.info("Consumer {} released {}", consumerId, queueName);
+        } catch (Exception e) {
+            log.error("Failed to release consumer {}", consumerId, e);
+        }
+    }
 
     public void stop() {
         this.running = false;
     }
+
+    public String getQueueName() {
+        return queueName;
+    }
+
+    public long drainProcessedCount() {
+        return processed.sumThenReset();
+    }
+
+    public long drainFailedCount() {
+        return failed.sumThenReset();
+    }
+
+    private static String newConsumerId() {
+        String host = System.getenv().getOrDefault("HOSTNAME", "worker");
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
 }
@@ -0,0 +1,46 @@
+package com.gateway.workers;
+
+import com.gateway.services.MerchantStatsService;
+import com.gateway.services.StartupTasks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Recomputes the merchant stats counters from the payments table: once per database on the
+ * first worker start (API pods may already have created rows by then, so emptiness of the table
+ * says nothing), and on {@code app.stats.rebuild-cron} if set.
+ */
+@Component
+@Profile("worker")
+@RequiredArgsConstructor
+@Slf4j
+public class MerchantStatsRebuildJob {
+
+    private static final String BACKFILL_TASK = "merchant-stats-backfill";
+
+    private final MerchantStatsService merchantStatsService;
+    private final StartupTasks startupTasks;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIfMissing() {
+        try {
+            startupTasks.runOnce(BACKFILL_TASK, merchantStatsService::rebuild);
+        } catch (Exception e) {
+            log.error("Failed to build merchant stats", e);
+        }
+    }
+
+    @Scheduled(cron = "${app.stats.rebuild-cron:-}")
+    public void rebuild() {
+        try {
+            merchantStatsService.rebuild();
+        } catch (Exception e) {
+            log.error("Failed to rebuild merchant stats", e);
+        }
+    }
+}
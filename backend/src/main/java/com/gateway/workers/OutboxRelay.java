@@ -0,0 +1,79 @@
+package com.gateway.workers;
+
+import com.gateway.models.OutboxJob;
+import com.gateway.queue.JobQueue;
+import com.gateway.repositories.OutboxJobRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves committed outbox jobs onto their queues.
+ *
+ * Each batch is locked with SKIP LOCKED so several worker pods can relay side by side, pushed with
+ * one multi-value enqueue per queue and deleted in the same transaction. A crash between the push
+ * and the commit relays the batch again, so delivery is at least once.
+ *
+ * Batches run at READ COMMITTED: under REPEATABLE READ the locking read and the delete also lock
+ * the gap after the newest row, which deadlocks with transactions appending new jobs.
+ */
+@Component
+@Profile("worker")
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxJobRepository outboxJobRepository;
+    private final JobQueue jobQueue;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.outbox.batch-size:500}")
+    private int batchSize;
+
+    public OutboxRelay(OutboxJobRepository outboxJobRepository, JobQueue jobQueue,
+                       PlatformTransactionManager transactionManager) {
+        this.outboxJobRepository = outboxJobRepository;
+        this.jobQueue = jobQueue;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.relay-interval-ms:200}")
+    public void relay() {
+        try {
+            // Keep draining while batches come back full
+            Integer relayed;
+            do {
+                relayed = transactionTemplate.execute(status -> relayBatch());
+            } while (relayed != null && relayed == batchSize);
+        } catch (Exception e) {
+            log.error("Failed to relay outbox jobs", e);
+        }
+    }
+
+    private int relayBatch() {
+        List<OutboxJob> batch = outboxJobRepository.lockOldest(batchSize);
+        if (batch.isEmpty()) return 0;
+
+        // The stored bytes already are the JobCodec encoding and are pushed as is
+        Map<String, List<byte[]>> jobsByQueue = new LinkedHashMap<>();
+        for (OutboxJob outboxJob : batch) {
+            jobsByQueue.computeIfAbsent(outboxJob.getQueueName(), q -> new ArrayList<>())
+                    .add(outboxJob.getJob());
+        }
+        jobsByQueue.forEach(jobQueue::enqueueAllEncoded);
+
+        outboxJobRepository.deleteAllInBatch(batch);
+        log.debug("Relayed {} outbox jobs", batch.size());
+        return batch.size();
+    }
+}
@@ -1,21 +1,28 @@
 package com.gateway.workers;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.gateway.jobs.DeliverWebhookJob;
 import com.gateway.jobs.ProcessPaymentJob;
 import com.gateway.models.Merchant;
 import com.gateway.models.Payment;
+import com.gateway.queue.JobQueue;
 import com.gateway.repositories.MerchantRepository;
 import com.gateway.repositories.PaymentRepository;
+import com.gateway.services.AnalyticsService;
+import com.gateway.services.CheckoutCache;
 import com.gateway.services.JobService;
+import com.gateway.services.MerchantStatsService;
+import com.gateway.services.PaymentStatusEvents;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
 
 @Component
 @Slf4j
@@ -24,7 +31,11 @@ public class PaymentWorker extends BaseWorker {
     private final PaymentRepository paymentRepository;
     private final MerchantRepository merchantRepository; // Needed? Maybe for webhook job payload enrichment if needed, but Payment has merchantId
     private final JobService jobService;
-    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final MerchantStatsService merchantStatsService;
+    private final AnalyticsService analyticsService;
+    private final CheckoutCache checkoutCache;
+    private final PaymentStatusEvents paymentStatusEvents;
 
     @Value("${app.test.mode:false}")
     private boolean testMode;
@@ -35,93 +46,138 @@ public class PaymentWorker extends BaseWorker {
     @Value("${app.test.delay:1000}")
     private int testDelay;
 
-    public PaymentWorker(RedisTemplate<String, Object> redisTemplate,
+    public PaymentWorker(JobQueue jobQueue,
                          PaymentRepository paymentRepository,
                          MerchantRepository merchantRepository,
                          JobService jobService,
-                         ObjectMapper objectMapper) {
-        super(redisTemplate, JobService.PAYMENT_QUEUE);
+                         TransactionTemplate transactionTemplate,
+                         MerchantStatsService merchantStatsService,
+                         AnalyticsService analyticsService,
+                         CheckoutCache checkoutCache,
+                         PaymentStatusEvents paymentStatusEvents) {
+        super(jobQueue, JobService.PAYMENT_QUEUE);
         this.paymentRepository = paymentRepository;
         this.merchantRepository = merchantRepository;
         this.jobService = jobService;
-        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.merchantStatsService = merchantStatsService;
+        this.analyticsService = analyticsService;
+        this.checkoutCache = checkoutCache;
+        this.paymentStatusEvents = paymentStatusEvents;
     }
 
     @Override
-    protected void process(Object jobObj) {
+    protected CompletableFuture<Void> process(Object jobObj) {
+        return processBatch(List.of(jobObj));
+    }
+
+    @Override
+    protected CompletableFuture<Void> processBatch(List<Object> jobObjs) {
         try {
-            // Handle potential type mismatch (LinkedHashMap vs POJO)
-            ProcessPaymentJob job = objectMapper.convertValue(jobObj, ProcessPaymentJob.class);
-            log.info("Processing Payment: {}", job.getPaymentId());
-
-            Payment payment = paymentRepository.findById(job.getPaymentId()).orElse(null);
-            if (payment == null) {
-                log.error("Payment not found: {}", job.getPaymentId());
-                return;
+            // JobCodec decodes straight into the job class
+            List<String> paymentIds = new ArrayList<>(jobObjs.size());
+            for (Object jobObj : jobObjs) {
+                paymentIds.add(((ProcessPaymentJob) jobObj).getPaymentId());
             }
+            log.info("Processing Payments: {}", paymentIds);
 
-            // 2. Simulate Delay
+            // 2. Simulate Delay (scheduled, so this consumer can pick up the next payments meanwhile)
+            // A batch is submitted to the simulated bank together and completes together.
             long delay = testMode ? testDelay : (5000 + new Random().nextInt(5000));
-            try { Thread.sleep(delay); } catch (InterruptedException e) {}
-
-            // 3. Determine Outcome
-            boolean isSuccess;
-            if (testMode) {
-                isSuccess = testSuccess;
-            } else {
-                // Random based on method
-                double chance = "upi".equalsIgnoreCase(payment.getMethod()) ? 0.90 : 0.95;
-                isSuccess = new Random().nextDouble() < chance;
-            }
+            return completeAfter(delay, () -> complete(paymentIds));
+
+        } catch (Exception e) {
+            log.error("Error processing payment job", e);
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 
-            // 4. Update Status
-            if (isSuccess) {
-                payment.setStatus("success");
-            } else {
-                payment.setStatus("failed");
-                payment.setErrorCode("PAYMENT_FAILED");
-                payment.setErrorDescription("Payment processing failed due to bank rejection."); // Simplified
+    // Failures propagate, so the batch is requeued rather than acked
+    private void complete(List<String> paymentIds) {
+        // 1, 3, 4. Fetch, decide and update the batch in one transaction (one SELECT, batched UPDATEs).
+        // Jobs are delivered at least once: only payments still pending are decided, so a
+        // redelivered job cannot flip a final status or send a second webhook.
+        List<Payment> payments = transactionTemplate.execute(status -> {
+            List<Payment> found = paymentRepository.findPendingForUpdate(paymentIds);
+            if (found.size() < paymentIds.size()) {
+                log.warn("Skipping {} of {} payments that are missing or already final", paymentIds.size() - found.size(), paymentIds);
             }
-            paymentRepository.save(payment);
-            log.info("Payment {} status updated to {}", payment.getId(), payment.getStatus());
+            if (found.isEmpty()) return found;
+            Map<String, String> previousStatuses = new HashMap<>();
+            found.forEach(payment -> previousStatuses.put(payment.getId(), payment.getStatus()));
+            found.forEach(this::determineOutcome);
+            List<Payment> saved = paymentRepository.saveAll(found);
+            merchantStatsService.recordStatusChanges(saved, previousStatuses);
+            analyticsService.recordPaymentOutcomes(saved, previousStatuses);
 
-            // 5. Enqueue Webhook
-            enqueueWebhook(payment);
+            // 5. Enqueue Webhooks (through the outbox, so they commit with the status change)
+            enqueueWebhooks(saved);
+            return saved;
+        });
+        if (payments.isEmpty()) return;
+        payments.forEach(payment -> log.info("Payment {} status updated to {}", payment.getId(), payment.getStatus()));
+        checkoutCache.invalidatePayments(payments.stream().map(Payment::getId).toList());
+        paymentStatusEvents.publish(payments);
+    }
 
-        } catch (Exception e) {
-            log.error("Error processing payment job", e);
+    private void determineOutcome(Payment payment) {
+        // 3. Determine Outcome
+        boolean isSuccess;
+        if (testMode) {
+            isSuccess = testSuccess;
+        } else {
+            // Random based on method
+            double chance = "upi".equalsIgnoreCase(payment.getMethod()) ? 0.90 : 0.95;
+            isSuccess = new Random().nextDouble() < chance;
+        }
+
+        // 4. Update Status
+        if (isSuccess) {
+            payment.setStatus("success");
+        } else {
+            payment.setStatus("failed");
+            payment.setErrorCode("PAYMENT_FAILED");
+            payment.setErrorDescription("Payment processing failed due to bank rejection."); // Simplified
         }
     }
 
-    private void enqueueWebhook(Payment payment) {
-        try {
-            // Construct Payload
-            Map<String, Object> paymentData = new HashMap<>();
-            paymentData.put("id", payment.getId());
-            paymentData.put("order_id", payment.getOrderId());
-            paymentData.put("amount", payment.getAmount());
-            paymentData.put("currency", payment.getCurrency());
-            paymentData.put("method", payment.getMethod());
-            paymentData.put("status", payment.getStatus());
-            paymentData.put("created_at", payment.getCreatedAt().toString());
-            // Add vpa or card details if needed
-            
-            Map<String, Object> data = new HashMap<>();
-            data.put("payment", paymentData);
-            
-            Map<String, Object> payload = new HashMap<>();
-            payload.put("event", "payment." + payment.getStatus()); // payment.success or payment.failed
-            payload.put("timestamp", System.currentTimeMillis() / 1000);
-            payload.put("data", data);
-
-            DeliverWebhookJob webhookJob = new DeliverWebhookJob();
-            webhookJob.setMerchantId(payment.getMerchantId());
-            webhookJob.setEventType("payment." + payment.getStatus());
-            webhookJob.setPayload(payload);
-            
-            jobService.enqueueWebhookJob(webhookJob);
-        } catch (Exception e) {
-            log.error("Failed to enqueue webhook for payment {}", payment.getId(), e);
+    private void enqueueWebhooks(List<Payment> payments) {
+        List<DeliverWebhookJob> webhookJobs = new ArrayList<>(payments.size());
+        for (Payment payment : payments) {
+            try {
+                webhookJobs.add(buildWebhookJob(payment));
+            } catch (Exception e) {
+                log.error("Failed to build webhook for payment {}", payment.getId(), e);
+            }
         }
+
+        jobService.enqueueWebhookJobs(webhookJobs);
+    }
+
+    private DeliverWebhookJob buildWebhookJob(Payment payment) {
+        // Construct Payload
+        Map<String, Object> paymentData = new HashMap<>();
+        paymentData.put("id", payment.getId());
+        paymentData.put("order_id", payment.getOrderId());
+        paymentData.put("amount", payment.getAmount());
+        paymentData.put("currency", payment.getCurrency());
+        paymentData.put("method", payment.getMethod());
+        paymentData.put("status", payment.getStatus());
+        paymentData.put("created_at", payment.getCreatedAt().toString());
+        // Add vpa or card details if needed
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("payment", paymentData);
+
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("event", "payment." + payment.getStatus()); // payment.success or payment.failed
+        payload.put("timestamp", System.currentTimeMillis() / 1000);
+        payload.put("data", data);
+
+        DeliverWebhookJob webhookJob = new DeliverWebhookJob();
+        webhookJob.setMerchantId(payment.getMerchantId());
+        webhookJob.setEventType("payment." + payment.getStatus());
+        webhookJob.setPayload(payload);
+        return webhookJob;
     }
 }
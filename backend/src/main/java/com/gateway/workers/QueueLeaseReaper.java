@@ -0,0 +1,38 @@
+package com.gateway.workers;
+
+import com.gateway.queue.JobQueue;
+import com.gateway.services.JobService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Returns jobs held by consumers whose lease has expired (crashed or hung pods) to their queue,
+ * so they are picked up by a live consumer.
+ */
+@Component
+@Profile("worker")
+@RequiredArgsConstructor
+@Slf4j
+public class QueueLeaseReaper {
+
+    private static final List<String> QUEUES = List.of(
+            JobService.PAYMENT_QUEUE, JobService.WEBHOOK_QUEUE, JobService.REFUND_QUEUE);
+
+    private final JobQueue jobQueue;
+
+    @Scheduled(fixedDelayString = "${app.worker.reaper-interval-ms:15000}")
+    public void reapExpiredLeases() {
+        for (String queueName : QUEUES) {
+            try {
+                jobQueue.reclaimExpired(queueName);
+            } catch (Exception e) {
+                log.error("Failed to reap leases for {}", queueName, e);
+            }
+        }
+    }
+}
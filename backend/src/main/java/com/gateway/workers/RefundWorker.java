@@ -1,21 +1,24 @@
 package com.gateway.workers;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.gateway.jobs.DeliverWebhookJob;
 import com.gateway.jobs.ProcessRefundJob;
 import com.gateway.models.Payment;
 import com.gateway.models.Refund;
+import com.gateway.queue.JobQueue;
 import com.gateway.repositories.PaymentRepository;
 import com.gateway.repositories.RefundRepository;
+import com.gateway.services.AnalyticsService;
 import com.gateway.services.JobService;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
 
 @Component
 @Slf4j
@@ -24,30 +27,33 @@ public class RefundWorker extends BaseWorker {
     private final RefundRepository refundRepository;
     private final PaymentRepository paymentRepository;
     private final JobService jobService;
-    private final ObjectMapper objectMapper;
+    private final AnalyticsService analyticsService;
+    private final TransactionTemplate transactionTemplate;
 
-    public RefundWorker(RedisTemplate<String, Object> redisTemplate,
+    public RefundWorker(JobQueue jobQueue,
                         RefundRepository refundRepository,
                         PaymentRepository paymentRepository,
                         JobService jobService,
-                        ObjectMapper objectMapper) {
-        super(redisTemplate, JobService.REFUND_QUEUE);
+                        AnalyticsService analyticsService,
+                        TransactionTemplate transactionTemplate) {
+        super(jobQueue, JobService.REFUND_QUEUE);
         this.refundRepository = refundRepository;
         this.paymentRepository = paymentRepository;
         this.jobService = jobService;
-        this.objectMapper = objectMapper;
+        this.analyticsService = analyticsService;
+        this.transactionTemplate = transactionTemplate;
     }
 
     @Override
-    protected void process(Object jobObj) {
+    protected CompletableFuture<Void> process(Object jobObj) {
         try {
-            ProcessRefundJob job = objectMapper.convertValue(jobObj, ProcessRefundJob.class);
+            ProcessRefundJob job = (ProcessRefundJob) jobObj;
             log.info("Processing Refund: {}", job.getRefundId());
 
             Refund refund = refundRepository.findById(job.getRefundId()).orElse(null);
             if (refund == null) {
                 log.error("Refund not found: {}", job.getRefundId());
-                return;
+                return CompletableFuture.completedFuture(null);
             }
 
             // 2. Verify Payment (Usually done at API level, but check again or just process)
@@ -62,19 +68,36 @@ public class RefundWorker extends BaseWorker {
             Payment payment = paymentRepository.findById(refund.getPaymentId()).orElse(null);
             if (payment == null) {
                 // Should not happen
-                return;
+                log.error("Payment {} of refund {} not found", refund.getPaymentId(), refund.getId());
+                return CompletableFuture.completedFuture(null);
             }
 
-            // 3. Processing Delay
+            // 3. Processing Delay (scheduled, so this consumer can pick up the next refund meanwhile)
             long delay = 3000 + new Random().nextInt(2000);
-            try { Thread.sleep(delay); } catch (InterruptedException e) {}
+            return completeAfter(delay, () -> complete(refund.getId(), payment));
+
+        } catch (Exception e) {
+            log.error("Error processing refund job", e);
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 
+    // Failures propagate, so the job is requeued rather than acked
+    private void complete(String refundId, Payment payment) {
+        transactionTemplate.executeWithoutResult(status -> {
             // 4. Update Status
             // (Assuming validation passed in API for simplicity, or we re-validate)
             // "Set status to 'processed'"
+            // A redelivered job finds the refund processed; its webhook was committed with it
+            Refund refund = refundRepository.findByIdForUpdate(refundId).orElse(null);
+            if (refund == null || "processed".equals(refund.getStatus())) {
+                log.info("Refund {} missing or already processed", refundId);
+                return;
+            }
             refund.setStatus("processed");
             refund.setProcessedAt(LocalDateTime.now());
             refundRepository.save(refund);
+            analyticsService.recordRefund(refund, payment);
 
             // 5. Full Refund check?
             // "If refund amount equals payment amount... update payment record".
@@ -83,38 +106,31 @@ public class RefundWorker extends BaseWorker {
                 // Optional step per requirements.
             }
 
-            // 6. Enqueue Webhook
+            // 6. Enqueue Webhook (through the outbox, in the same transaction)
             enqueueWebhook(refund);
-
-        } catch (Exception e) {
-            log.error("Error processing refund job", e);
-        }
+        });
     }
 
     private void enqueueWebhook(Refund refund) {
-        try {
-            Map<String, Object> refundData = new HashMap<>();
-            refundData.put("id", refund.getId());
-            refundData.put("payment_id", refund.getPaymentId());
-            refundData.put("amount", refund.getAmount());
-            refundData.put("status", refund.getStatus());
-            
-            Map<String, Object> data = new HashMap<>();
-            data.put("refund", refundData);
-
-            Map<String, Object> payload = new HashMap<>();
-            payload.put("event", "refund.processed");
-            payload.put("timestamp", System.currentTimeMillis() / 1000);
-            payload.put("data", data);
-
-            DeliverWebhookJob webhookJob = new DeliverWebhookJob();
-            webhookJob.setMerchantId(refund.getMerchantId());
-            webhookJob.setEventType("refund.processed");
-            webhookJob.setPayload(payload);
-
-            jobService.enqueueWebhookJob(webhookJob);
-        } catch (Exception e) {
-            log.error("Failed to enqueue webhook for refund", e);
-        }
+        Map<String, Object> refundData = new HashMap<>();
+        refundData.put("id", refund.getId());
+        refundData.put("payment_id", refund.getPaymentId());
+        refundData.put("amount", refund.getAmount());
+        refundData.put("status", refund.getStatus());
+        
+        Map<String, Object> data = new HashMap<>();
+        data.put("refund", refundData);
+
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("event", "refund.processed");
+        payload.put("timestamp", System.currentTimeMillis() / 1000);
+        payload.put("data", data);
+
+        DeliverWebhookJob webhookJob = new DeliverWebhookJob();
+        webhookJob.setMerchantId(refund.getMerchantId());
+        webhookJob.setEventType("refund.processed");
+        webhookJob.setPayload(payload);
+
+        jobService.enqueueWebhookJobs(List.of(webhookJob));
     }
 }
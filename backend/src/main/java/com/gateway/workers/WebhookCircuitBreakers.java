@@ -0,0 +1,113 @@
+package com.gateway.workers;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Per-endpoint bulkheads and circuit breakers for webhook deliveries, keyed on merchant and
+ * webhook URL, so one merchant's failing or slow endpoint cannot use up delivery capacity for
+ * everyone else.
+ *
+ * An endpoint allows a bounded number of concurrent requests. After a run of consecutive failures
+ * (timeouts, connection errors, 429 or 5xx) its breaker opens; once the open period has passed a
+ * single trial request is let through, and its outcome closes or re-opens the breaker.
+ */
+@Component
+@Slf4j
+public class WebhookCircuitBreakers {
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    @Value("${app.webhook.merchant-max-in-flight:20}")
+    private int maxInFlightPerEndpoint;
+
+    @Value("${app.webhook.breaker.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${app.webhook.breaker.open-ms:30000}")
+    private long openMs;
+
+    @Value("${app.webhook.bulkhead-park-ms:1000}")
+    private long bulkheadParkMs;
+
+    public Endpoint endpoint(UUID merchantId, String webhookUrl) {
+        return endpoints.computeIfAbsent(merchantId + "|" + webhookUrl, key -> new Endpoint(key, maxInFlightPerEndpoint));
+    }
+
+    private enum State { CLOSED, OPEN, HALF_OPEN }
+
+    public class Endpoint {
+
+        private final String key;
+        private final Semaphore inFlight;
+
+        // Guarded by this
+        private State state = State.CLOSED;
+        private int consecutiveFailures;
+        private long openUntil;
+
+        private Endpoint(String key, int maxInFlight) {
+            this.key = key;
+            this.inFlight = new Semaphore(maxInFlight);
+        }
+
+        /**
+         * Takes a delivery slot. Returns false, without taking one, when the breaker is open or the
+         * endpoint already has its maximum of requests in flight.
+         */
+        public boolean tryAcquire() {
+            synchronized (this) {
+                if (state != State.CLOSED) {
+                    long now = System.currentTimeMillis();
+                    if (now < openUntil) return false;
+                    // Let one trial request through; another one goes if it never reports back
+                    state = State.HALF_OPEN;
+                    openUntil = now + openMs;
+                }
+            }
+            if (inFlight.tryAcquire()) return true;
+            synchronized (this) {
+                if (state == State.HALF_OPEN) {
+                    // The trial did not get a slot; the next delivery may try instead
+                    state = State.OPEN;
+                    openUntil = 0;
+                }
+            }
+            return false;
+        }
+
+        /** Returns the slot taken by {@link #tryAcquire()}. */
+        public void release() {
+            inFlight.release();
+        }
+
+        public synchronized void recordSuccess() {
+            if (state != State.CLOSED) {
+                log.info("Webhook circuit for {} closed", key);
+            }
+            state = State.CLOSED;
+            consecutiveFailures = 0;
+        }
+
+        public synchronized void recordFailure() {
+            consecutiveFailures++;
+            if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+                state = State.OPEN;
+                openUntil = System.currentTimeMillis() + openMs;
+                log.warn("Webhook circuit for {} opened after {} consecutive failures", key, consecutiveFailures);
+            }
+        }
+
+        /** How long a delivery that could not take a slot should be parked for. */
+        public synchronized long retryAfterMs() {
+            if (state == State.CLOSED) return bulkheadParkMs;
+            return Math.max(openUntil - System.currentTimeMillis(), bulkheadParkMs);
+        }
+    }
+}
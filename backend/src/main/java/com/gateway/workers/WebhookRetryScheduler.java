@@ -1,67 +1,83 @@
 package com.gateway.workers;
 
-import com.gateway.jobs.DeliverWebhookJob;
 import com.gateway.models.WebhookLog;
+import com.gateway.queue.JobQueue;
 import com.gateway.repositories.WebhookLogRepository;
 import com.gateway.services.JobService;
+import com.gateway.services.StartupTasks;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
+import java.util.UUID;
 
+/**
+ * Moves webhook retries scheduled by {@link WebhookWorker} onto the webhook queue once they are due.
+ * Promotion is a single atomic step in the queue backend, so every worker pod can run it.
+ *
+ * On the first start it also moves the retries the previous DB-polling scheduler left in
+ * {@code webhook_logs} (pending with a {@code next_retry_at}) into the delay set.
+ */
 @Component
 @Profile("worker") // Only run scheduler in worker service
 @RequiredArgsConstructor
 @Slf4j
 public class WebhookRetryScheduler {
 
-    private final WebhookLogRepository webhookLogRepository;
-    private final JobService jobService;
+    private static final int PROMOTE_BATCH = 100;
+    private static final int MIGRATE_BATCH = 500;
+    private static final String MIGRATION_TASK = "webhook-retries-to-delay-queue";
 
-    // Check every 10 seconds
-    @Scheduled(fixedDelay = 10000)
-    public void scheduleRetries() {
-        LocalDateTime now = LocalDateTime.now();
-        List<WebhookLog> pendingLogs = webhookLogRepository.findByStatusAndNextRetryAtBefore("pending", now);
+    private final JobQueue jobQueue;
+    private final WebhookLogRepository webhookLogRepository;
+    private final StartupTasks startupTasks;
 
-        if (!pendingLogs.isEmpty()) {
-            log.info("Found {} webhooks pending retry", pendingLogs.size());
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateScheduledRetries() {
+        try {
+            startupTasks.runOnce(MIGRATION_TASK, this::moveScheduledRetries);
+        } catch (Exception e) {
+            log.error("Failed to move scheduled webhook retries to the delay queue", e);
         }
+    }
 
-        for (WebhookLog logEntry : pendingLogs) {
-            try {
-                // Update status to prevent double picking? 
-                // Better pattern: set next_retry_at to future or null temporary?
-                // Or "processing"? 
-                // The requirements say "status defaults to 'pending'".
-                // If we enqueue it, it might take time to pick up.
-                // If we don't update DB, next poll (10s later) might pick it again if queue is slow.
-                // Best to update "next_retry_at" to something future or NULL to lock it?
-                // OR check if query excludes currently processing?
-                // Let's just update `next_retry_at` to null or future to indicate it's been scheduled.
-                // But `WebhookWorker` will re-set it if it fails.
-                // So let's update `next_retry_at` to null to avoid re-scheduling immediately.
-                
-                logEntry.setNextRetryAt(null); // Mark as picked up (or use a "queued" status?)
-                // If worker fails immediately, it sets a NEW next_retry_at.
-                // If worker is slow, this prevents double queuing.
-                webhookLogRepository.save(logEntry);
-
-                DeliverWebhookJob job = new DeliverWebhookJob();
-                job.setMerchantId(logEntry.getMerchantId());
-                job.setEventType(logEntry.getEvent());
-                job.setPayload(logEntry.getPayload());
-                job.setExistingLogId(logEntry.getId());
-                // attemptNumber is in DB, worker will read it.
-
-                jobService.enqueueWebhookJob(job);
-            } catch (Exception e) {
-                log.error("Failed to schedule retry for webhook {}", logEntry.getId(), e);
+    // Retries scheduled by this version are already in the delay set under the same encoded job,
+    // so adding them again only rewrites their score
+    private void moveScheduledRetries() {
+        long moved = 0;
+        UUID after = null;
+        List<WebhookLog> batch;
+        do {
+            batch = webhookLogRepository.findScheduledRetriesAfter(after, PageRequest.of(0, MIGRATE_BATCH));
+            for (WebhookLog logEntry : batch) {
+                jobQueue.enqueueAt(JobService.WEBHOOK_QUEUE, WebhookWorker.retryJob(logEntry),
+                        logEntry.getNextRetryAt().atZone(ZoneId.systemDefault()).toInstant());
+                after = logEntry.getId();
             }
+            moved += batch.size();
+        } while (batch.size() == MIGRATE_BATCH);
+        log.info("Moved {} scheduled webhook retries to the delay queue", moved);
+    }
+
+    @Scheduled(fixedDelayString = "${app.webhook.retry-poll-ms:250}")
+    public void scheduleRetries() {
+        try {
+            long promoted;
+            do {
+                promoted = jobQueue.promoteDue(JobService.WEBHOOK_QUEUE, PROMOTE_BATCH);
+                if (promoted > 0) {
+                    log.info("Promoted {} due webhook retries", promoted);
+                }
+            } while (promoted == PROMOTE_BATCH);
+        } catch (Exception e) {
+            log.error("Failed to promote webhook retries", e);
         }
     }
 }
@@ -0,0 +1,67 @@
+package com.gateway.workers;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Non-blocking HTTP client for webhook deliveries.
+ *
+ * Connections are kept alive and pooled per host by the JDK client, HTTP/2 is negotiated where the
+ * endpoint supports it, and every request has a connect and a response timeout. The number of
+ * requests in flight across the worker is capped; callers wait for a slot before sending.
+ */
+@Component
+@Slf4j
+public class WebhookSender {
+
+    private final HttpClient httpClient;
+    private final Duration responseTimeout;
+    private final Semaphore inFlight;
+
+    public WebhookSender(@Value("${app.webhook.connect-timeout-ms:5000}") long connectTimeoutMs,
+                         @Value("${app.webhook.response-timeout-ms:10000}") long responseTimeoutMs,
+                         @Value("${app.webhook.max-in-flight:500}") int maxInFlight) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                // Response handling (and the log update chained on it) runs on virtual threads
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        this.responseTimeout = Duration.ofMillis(responseTimeoutMs);
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    public CompletableFuture<HttpResponse<String>> post(String url, byte[] body, String signature) {
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
+
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                    .timeout(responseTimeout)
+                    .header("Content-Type", "application/json")
+                    .header("X-Webhook-Signature", signature)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build();
+            return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                    .whenComplete((response, error) -> inFlight.release());
+        } catch (RuntimeException e) {
+            // Malformed URL and the like
+            inFlight.release();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
@@ -1,132 +1,251 @@
 package com.gateway.workers;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.gateway.jobs.DeliverWebhookJob;
 import com.gateway.models.Merchant;
 import com.gateway.models.WebhookLog;
-import com.gateway.repositories.MerchantRepository;
+import com.gateway.queue.JobQueue;
 import com.gateway.repositories.WebhookLogRepository;
+import com.gateway.services.JobService;
+import com.gateway.services.MerchantService;
+import com.gateway.services.WebhookSigner;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.codec.digest.HmacUtils;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Component
 @Slf4j
 public class WebhookWorker extends BaseWorker {
 
+    private static final TypeReference<Map<String, Object>> PAYLOAD_TYPE = new TypeReference<>() {};
+
     private final WebhookLogRepository webhookLogRepository;
-    private final MerchantRepository merchantRepository;
+    private final MerchantService merchantService;
+    private final JobService jobService;
     private final ObjectMapper objectMapper;
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final WebhookSender webhookSender;
+    private final WebhookCircuitBreakers circuitBreakers;
+    private final WebhookSigner webhookSigner;
 
     @Value("${app.test.webhook.retry:false}")
     private boolean testRetryMode;
 
-    public WebhookWorker(RedisTemplate<String, Object> redisTemplate,
+    @Value("${app.webhook.max-park-ms:300000}")
+    private long maxParkMs;
+
+    public WebhookWorker(JobQueue jobQueue,
                          WebhookLogRepository webhookLogRepository,
-                         MerchantRepository merchantRepository,
+                         MerchantService merchantService,
+                         JobService jobService,
+                         WebhookSender webhookSender,
+                         WebhookCircuitBreakers circuitBreakers,
+                         WebhookSigner webhookSigner,
                          ObjectMapper objectMapper) {
-        super(redisTemplate, "webhook_queue");
+        super(jobQueue, "webhook_queue");
         this.webhookLogRepository = webhookLogRepository;
-        this.merchantRepository = merchantRepository;
+        this.merchantService = merchantService;
+        this.jobService = jobService;
+        this.webhookSender = webhookSender;
+        this.circuitBreakers = circuitBreakers;
+        this.webhookSigner = webhookSigner;
         this.objectMapper = objectMapper;
     }
 
     @Override
-    protected void process(Object jobObj) {
-        DeliverWebhookJob job = objectMapper.convertValue(jobObj, DeliverWebhookJob.class);
+    protected CompletableFuture<Void> process(Object jobObj) {
+        return deliver((DeliverWebhookJob) jobObj);
+    }
+
+    private CompletableFuture<Void> deliver(DeliverWebhookJob job) {
 
         // 1. Fetch Merchant
-        Merchant merchant = merchantRepository.findById(job.getMerchantId()).orElse(null);
+        Merchant merchant = merchantService.getMerchant(job.getMerchantId()).orElse(null);
         if (merchant == null || merchant.getWebhookUrl() == null || merchant.getWebhookUrl().isEmpty()) {
             log.warn("Merchant {} has no webhook URL. Skipping.", job.getMerchantId());
-            return; // Or mark as Skipped
+            return CompletableFuture.completedFuture(null); // Or mark as Skipped
+        }
+
+        // Park the delivery instead of calling an endpoint whose breaker is open or which is at its concurrency limit
+        WebhookCircuitBreakers.Endpoint endpoint = circuitBreakers.endpoint(merchant.getId(), merchant.getWebhookUrl());
+        if (!endpoint.tryAcquire()) {
+            long now = System.currentTimeMillis();
+            if (job.getParkDeadline() == 0) {
+                job.setParkDeadline(now + maxParkMs);
+            }
+            if (now < job.getParkDeadline()) {
+                park(job, endpoint.retryAfterMs());
+            } else {
+                // Parked for too long (e.g. the endpoint is dead and its breaker keeps reopening)
+                failUnavailable(job);
+            }
+            return CompletableFuture.completedFuture(null);
+        }
+
+        try {
+            return attempt(job, merchant, endpoint).whenComplete((result, error) -> endpoint.release());
+        } catch (RuntimeException e) {
+            endpoint.release();
+            throw e;
         }
+    }
+
+    private void park(DeliverWebhookJob job, long parkMs) {
+        Instant until = Instant.now().plusMillis(parkMs);
+        if (job.getExistingLogId() == null) {
+            // Show the parked delivery in the dashboard as pending
+            WebhookLog logEntry = prepareLog(job);
+            if (logEntry == null) return;
+            logEntry.setNextRetryAt(LocalDateTime.ofInstant(until, ZoneId.systemDefault()));
+            logEntry = webhookLogRepository.save(logEntry);
+            job.setExistingLogId(logEntry.getId());
+            job.setBody(logEntry.getBody());
+            job.setPayload(null);
+        }
+        log.debug("Parking webhook for merchant {} for {} ms", job.getMerchantId(), parkMs);
+        jobService.scheduleWebhookRetry(job, until);
+    }
+
+    // Counts as a failed attempt without calling the endpoint, so it retries with backoff and eventually fails
+    private void failUnavailable(DeliverWebhookJob job) {
+        WebhookLog logEntry = prepareLog(job);
+        if (logEntry == null) return;
+        int attempt = logEntry.getAttempts() + 1;
+        logEntry.setAttempts(attempt);
+        logEntry.setLastAttemptAt(LocalDateTime.now());
+        recordAttempt(job, logEntry, attempt, null,
+                new IllegalStateException("Endpoint unavailable for " + maxParkMs + " ms (circuit open or at its concurrency limit)"));
+    }
+
+    private CompletableFuture<Void> attempt(DeliverWebhookJob job, Merchant merchant, WebhookCircuitBreakers.Endpoint endpoint) {
+        WebhookLog logEntry = prepareLog(job);
+        if (logEntry == null) return CompletableFuture.completedFuture(null);
+        byte[] body = logEntry.getBody();
+
+        // 2. Generate HMAC Signature over the exact body bytes
+        String signature = webhookSigner.sign(merchant.getId(), merchant.getWebhookSecret(), body);
+
+        // 3. Send HTTP Request (the job stays in flight until the response or timeout arrives)
+        int attempt = logEntry.getAttempts() + 1;
+        logEntry.setAttempts(attempt);
+        logEntry.setLastAttemptAt(LocalDateTime.now());
+
+        WebhookLog attemptLog = logEntry;
+        return webhookSender.post(merchant.getWebhookUrl(), body, signature)
+                .handle((response, error) -> {
+                    if (error != null || response.statusCode() == 429 || response.statusCode() >= 500) {
+                        endpoint.recordFailure();
+                    } else {
+                        endpoint.recordSuccess();
+                    }
+                    recordAttempt(job, attemptLog, attempt, response, error);
+                    return null;
+                });
+    }
+
+    // Loads (or creates) the job's log entry with the body every attempt sends; null if the payload is unusable.
+    // Database errors propagate, so the job is requeued instead of dropped.
+    private WebhookLog prepareLog(DeliverWebhookJob job) {
 
         // 4. Log Webhook Attempt (Create/Update Log)
         WebhookLog logEntry;
         if (job.getExistingLogId() != null) {
             logEntry = webhookLogRepository.findById(job.getExistingLogId()).orElse(new WebhookLog());
         } else {
+            Map<String, Object> payload;
+            try {
+                payload = job.getPayload() != null ? job.getPayload() : objectMapper.readValue(job.getBody(), PAYLOAD_TYPE);
+            } catch (IOException e) {
+                log.error("Dropping webhook for merchant {} with an unreadable payload", job.getMerchantId(), e);
+                return null;
+            }
             logEntry = new WebhookLog();
             logEntry.setMerchantId(job.getMerchantId());
             logEntry.setEvent(job.getEventType());
-            logEntry.setPayload(job.getPayload());
+            logEntry.setPayload(payload);
+            logEntry.setBody(job.getBody());
             logEntry.setAttempts(0);
             logEntry.setStatus("pending");
             logEntry = webhookLogRepository.save(logEntry); // Save initially to get ID
         }
 
-        // 2. Generate HMAC Signature
-        // "Use the JSON string representation of the payload (no whitespace changes)"
-        String payloadJson = "";
-        try {
-            payloadJson = objectMapper.writeValueAsString(job.getPayload());
-        } catch (Exception e) {
-            log.error("Failed to serialize payload", e);
-            return;
+        // Every attempt sends the bytes serialized when the event was enqueued.
+        // Only jobs and logs from before bodies were stored are serialized here.
+        byte[] body = job.getBody() != null ? job.getBody() : logEntry.getBody();
+        if (body == null) {
+            try {
+                body = objectMapper.writeValueAsBytes(job.getPayload() != null ? job.getPayload() : logEntry.getPayload());
+            } catch (JsonProcessingException e) {
+                log.error("Dropping webhook for merchant {} with an unserializable payload", job.getMerchantId(), e);
+                return null;
+            }
         }
+        logEntry.setBody(body);
+        return logEntry;
+    }
 
-        String signature = "";
-        if (merchant.getWebhookSecret() != null) {
-            // HmacUtils from Apache Commons Codec
-            signature = new HmacUtils("HmacSHA256", merchant.getWebhookSecret()).hmacHex(payloadJson);
-        }
+    private void recordAttempt(DeliverWebhookJob job, WebhookLog logEntry, int attempt,
+                               HttpResponse<String> response, Throwable error) {
+        if (response != null) {
+            logEntry.setResponseCode(response.statusCode());
+            logEntry.setResponseBody(response.body());
 
-        // 3. Send HTTP Request
-        int attempt = logEntry.getAttempts() + 1;
-        logEntry.setAttempts(attempt);
-        logEntry.setLastAttemptAt(LocalDateTime.now());
-
-        try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.set("X-Webhook-Signature", signature);
-
-            HttpEntity<String> entity = new HttpEntity<>(payloadJson, headers);
-            
-            // Timeout handling usually via RestTemplate customization or CompletableFuture
-            // Use simple postForEntity for now.
-            ResponseEntity<String> response = restTemplate.postForEntity(merchant.getWebhookUrl(), entity, String.class);
-            
-            logEntry.setResponseCode(response.getStatusCode().value());
-            logEntry.setResponseBody(response.getBody());
-
-            if (response.getStatusCode().is2xxSuccessful()) {
+            if (response.statusCode() >= 200 && response.statusCode() < 300) {
                 logEntry.setStatus("success");
             } else {
                 logEntry.setStatus("pending"); // Will retry
             }
-
-        } catch (Exception e) {
-            log.error("Webhook delivery failed: {}", e.getMessage());
+        } else {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            log.error("Webhook delivery failed: {}", cause.toString());
             logEntry.setStatus("pending");
-            logEntry.setResponseBody(e.getMessage());
-            // responseCode might be 0 or extracted from exception if it's HttpStatusCodeException
+            logEntry.setResponseBody(cause.toString());
         }
 
         // 5/6. Retry Logic
+        boolean retry = false;
         if ("pending".equals(logEntry.getStatus())) {
             if (attempt >= 5) {
                 logEntry.setStatus("failed");
             } else {
                 logEntry.setNextRetryAt(calculateNextRetry(attempt));
+                retry = true;
             }
         } else {
              logEntry.setNextRetryAt(null);
         }
 
-        webhookLogRepository.save(logEntry);
+        // next_retry_at is kept for the audit trail; the retry itself waits in the queue's delay set
+        logEntry = webhookLogRepository.save(logEntry);
+        if (retry) {
+            scheduleRetry(job, logEntry);
+        }
+    }
+
+    private void scheduleRetry(DeliverWebhookJob job, WebhookLog logEntry) {
+        jobService.scheduleWebhookRetry(retryJob(logEntry), logEntry.getNextRetryAt().atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    // The next attempt of a logged delivery; the same log always yields the same encoded job
+    static DeliverWebhookJob retryJob(WebhookLog logEntry) {
+        DeliverWebhookJob retryJob = new DeliverWebhookJob();
+        retryJob.setMerchantId(logEntry.getMerchantId());
+        retryJob.setEventType(logEntry.getEvent());
+        retryJob.setBody(logEntry.getBody());
+        retryJob.setExistingLogId(logEntry.getId());
+        retryJob.setAttemptNumber(logEntry.getAttempts() + 1);
+        return retryJob;
     }
 
     private LocalDateTime calculateNextRetry(int attempt) {
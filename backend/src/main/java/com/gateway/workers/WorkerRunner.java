@@ -1,9 +1,9 @@
 package com.gateway.workers;
 
-import com.gateway.config.RedisConfig;
-import com.gateway.services.JobService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Profile;
@@ -11,6 +11,7 @@ import org.springframework.stereotype.Component;
 
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 @Component
 @Profile("worker")
@@ -19,25 +20,55 @@ import java.util.concurrent.Executors;
 public class WorkerRunner implements CommandLineRunner {
 
     private final ApplicationContext context;
-    private final ExecutorService executor = Executors.newFixedThreadPool(10); // Check thread pool size
+
+    // One virtual thread per consumer; consumers mostly block on Redis, JDBC and HTTP
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Value("${app.worker.payment.consumers:4}")
+    private int paymentConsumers;
+
+    @Value("${app.worker.webhook.consumers:8}")
+    private int webhookConsumers;
+
+    @Value("${app.worker.refund.consumers:2}")
+    private int refundConsumers;
+
+    @Value("${app.worker.shutdown-timeout-ms:30000}")
+    private long shutdownTimeoutMs;
 
     @Override
     public void run(String... args) throws Exception {
         log.info("Starting Worker Service...");
 
-        // Start Payment Worker
-        PaymentWorker paymentWorker = context.getBean(PaymentWorker.class);
-        executor.submit(paymentWorker);
-        log.info("Payment Worker started.");
+        // Start Payment Workers
+        start(context.getBean(PaymentWorker.class), paymentConsumers);
+        log.info("Payment Worker started with {} consumer(s).", paymentConsumers);
 
-        // Start Webhook Worker
-        WebhookWorker webhookWorker = context.getBean(WebhookWorker.class);
-        executor.submit(webhookWorker);
-        log.info("Webhook Worker started.");
+        // Start Webhook Workers
+        start(context.getBean(WebhookWorker.class), webhookConsumers);
+        log.info("Webhook Worker started with {} consumer(s).", webhookConsumers);
+
+        // Start Refund Workers
+        start(context.getBean(RefundWorker.class), refundConsumers);
+        log.info("Refund Worker started with {} consumer(s).", refundConsumers);
+    }
+
+    private void start(BaseWorker worker, int consumers) {
+        // Each run() is an independent consumer with its own processing list and lease
+        for (int i = 0; i < Math.max(1, consumers); i++) {
+            executor.submit(worker);
+        }
+    }
 
-        // Start Refund Worker
-        RefundWorker refundWorker = context.getBean(RefundWorker.class);
-        executor.submit(refundWorker);
-        log.info("Refund Worker started.");
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // Let in-flight jobs finish and be acked; anything left is released back to the queues
+        log.info("Draining workers...");
+        context.getBeansOfType(BaseWorker.class).values().forEach(BaseWorker::stop);
+        executor.shutdown();
+        if (!executor.awaitTermination(shutdownTimeoutMs, TimeUnit.MILLISECONDS)) {
+            log.warn("Workers did not drain within {} ms", shutdownTimeoutMs);
+            executor.shutdownNow();
+        }
     }
 }
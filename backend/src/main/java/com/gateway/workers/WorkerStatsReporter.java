@@ -0,0 +1,50 @@
+package com.gateway.workers;
+
+import com.gateway.services.JobService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Logs per-queue throughput and accumulates the totals in Redis so every worker pod
+ * contributes to the counts reported by {@link JobService#getQueueStatus()}.
+ */
+@Component
+@Profile("worker")
+@RequiredArgsConstructor
+@Slf4j
+public class WorkerStatsReporter {
+
+    private final List<BaseWorker> workers;
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private long lastReportAt = System.currentTimeMillis();
+
+    @Scheduled(fixedDelayString = "${app.worker.stats-interval-ms:10000}")
+    public void report() {
+        long now = System.currentTimeMillis();
+        double seconds = Math.max(1, now - lastReportAt) / 1000.0;
+        lastReportAt = now;
+
+        for (BaseWorker worker : workers) {
+            long processed = worker.drainProcessedCount();
+            long failed = worker.drainFailedCount();
+            if (processed == 0 && failed == 0) continue;
+
+            log.info("Queue {}: {} processed, {} failed ({} jobs/sec)",
+                    worker.getQueueName(), processed, failed, String.format("%.1f", processed / seconds));
+            try {
+                String key = JobService.statsKeyFor(worker.getQueueName());
+                stringRedisTemplate.opsForHash().increment(key, "processed", processed);
+                stringRedisTemplate.opsForHash().increment(key, "failed", failed);
+            } catch (Exception e) {
+                log.error("Failed to publish stats for {}", worker.getQueueName(), e);
+            }
+        }
+    }
+}
@@ -91,12 +91,62 @@ CREATE TABLE IF NOT EXISTS idempotency_keys (
     FOREIGN KEY (merchant_id) REFERENCES merchants(id)
 );
 
+-- 7. Job Outbox Table (jobs written with the rows they refer to, relayed to Redis after commit)
+CREATE TABLE IF NOT EXISTS job_outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    queue_name VARCHAR(50) NOT NULL,
+    job BLOB NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- 8. Merchant Stats (running counters behind /api/v1/payments/stats)
+CREATE TABLE IF NOT EXISTS merchant_stats (
+    merchant_id VARCHAR(36) PRIMARY KEY,
+    total_transactions BIGINT NOT NULL DEFAULT 0,
+    success_count BIGINT NOT NULL DEFAULT 0,
+    success_amount BIGINT NOT NULL DEFAULT 0
+);
+
+-- 9. Payment Rollups (hourly/daily totals per merchant and method/card network/currency)
+CREATE TABLE IF NOT EXISTS payment_rollups (
+    merchant_id VARCHAR(36) NOT NULL,
+    granularity VARCHAR(5) NOT NULL, -- 'hour' or 'day'
+    bucket_start DATETIME NOT NULL,
+    method VARCHAR(20) NOT NULL,
+    card_network VARCHAR(20) NOT NULL, -- '' for non-card payments
+    currency VARCHAR(3) NOT NULL,
+    payment_count BIGINT NOT NULL DEFAULT 0,
+    success_count BIGINT NOT NULL DEFAULT 0,
+    success_amount BIGINT NOT NULL DEFAULT 0,
+    refund_count BIGINT NOT NULL DEFAULT 0,
+    refund_amount BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (merchant_id, granularity, bucket_start, method, card_network, currency)
+);
+
+-- 10. Startup Tasks (one-time backfills and data migrations that have completed)
+CREATE TABLE IF NOT EXISTS startup_tasks (
+    name VARCHAR(64) PRIMARY KEY,
+    completed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
 -- Schema Modifications (Will fail safely if columns exist due to continue-on-error=true)
 ALTER TABLE merchants ADD COLUMN webhook_secret VARCHAR(64);
 ALTER TABLE payments ADD COLUMN captured BOOLEAN DEFAULT FALSE;
+ALTER TABLE webhook_logs ADD COLUMN body MEDIUMBLOB;
+ALTER TABLE merchants ADD COLUMN api_secret_hash VARCHAR(64);
+ALTER TABLE merchants MODIFY api_secret VARCHAR(64) NULL;
 
 -- New Indexes
 CREATE INDEX idx_refunds_payment_id ON refunds(payment_id);
 CREATE INDEX idx_webhook_logs_merchant_id ON webhook_logs(merchant_id);
 CREATE INDEX idx_webhook_logs_status ON webhook_logs(status);
-CREATE INDEX idx_webhook_logs_next_retry ON webhook_logs(next_retry_at);
\ No newline at end of file
+CREATE INDEX idx_webhook_logs_next_retry ON webhook_logs(next_retry_at);
+-- Keyset pagination of the list endpoints: (merchant_id, [status,] created_at, id)
+CREATE INDEX idx_payments_merchant_created ON payments(merchant_id, created_at, id);
+CREATE INDEX idx_payments_merchant_status_created ON payments(merchant_id, status, created_at, id);
+CREATE INDEX idx_refunds_merchant_created ON refunds(merchant_id, created_at, id);
+CREATE INDEX idx_refunds_merchant_status_created ON refunds(merchant_id, status, created_at, id);
+CREATE INDEX idx_orders_merchant_created ON orders(merchant_id, created_at, id);
+CREATE INDEX idx_orders_merchant_status_created ON orders(merchant_id, status, created_at, id);
+CREATE INDEX idx_webhook_logs_merchant_created ON webhook_logs(merchant_id, created_at, id);
+CREATE INDEX idx_webhook_logs_merchant_status_created ON webhook_logs(merchant_id, status, created_at, id);
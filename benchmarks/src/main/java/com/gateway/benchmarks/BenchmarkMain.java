@@ -0,0 +1,61 @@
+package com.gateway.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.gateway.queue.JobCodec;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Runs the benchmarks and writes their results as JSON.
+ *
+ * Takes the usual JMH command line (benchmark regexps, -f, -wi, -i, ...). Unless -rf/-rff are
+ * given, results go to {@code target/jmh-result.json}. Encoded job sizes per queue format are
+ * written to {@code target/jmh-job-sizes.json} next to them.
+ */
+public class BenchmarkMain {
+
+    private static final String RESULT_FILE = "target/jmh-result.json";
+    private static final String SIZES_FILE = "target/jmh-job-sizes.json";
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cli = new CommandLineOptions(args);
+        if (cli.shouldHelp() || cli.shouldList() || cli.shouldListWithParams() || cli.shouldListProfilers()
+                || cli.shouldListResultFormats()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        OptionsBuilder options = new OptionsBuilder();
+        options.parent(cli);
+        if (!cli.getResultFormat().hasValue()) options.resultFormat(ResultFormatType.JSON);
+        if (!cli.getResult().hasValue()) options.result(RESULT_FILE);
+
+        new File("target").mkdirs();
+        writeJobSizes(new File(SIZES_FILE));
+        new Runner(options.build()).run();
+    }
+
+    private static void writeJobSizes(File file) throws Exception {
+        ObjectMapper objectMapper = Fixtures.objectMapper();
+        JobCodec codec = new JobCodec(objectMapper);
+        GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer();
+
+        Map<String, Map<String, Integer>> sizes = new LinkedHashMap<>();
+        for (JobCodecBenchmark.JobType type : JobCodecBenchmark.JobType.values()) {
+            Object job = type.sample(objectMapper);
+            Map<String, Integer> bytes = new LinkedHashMap<>();
+            bytes.put("job_codec", codec.encode(job).length);
+            bytes.put("generic_json", json.serialize(job).length);
+            sizes.put(type.name(), bytes);
+        }
+        objectMapper.writer(SerializationFeature.INDENT_OUTPUT).writeValue(file, sizes);
+    }
+}
@@ -0,0 +1,95 @@
+package com.gateway.benchmarks;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.gateway.jobs.DeliverWebhookJob;
+import com.gateway.jobs.ProcessPaymentJob;
+import com.gateway.models.Payment;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Sample jobs and entities shaped like the ones the API and workers handle, and an ObjectMapper
+ * configured like the application's (see {@code spring.jackson.*} in application.properties).
+ */
+final class Fixtures {
+
+    static final UUID MERCHANT_ID = UUID.fromString("550e8400-e29b-41d4-a716-446655440000");
+    static final String WEBHOOK_SECRET = "whsec_test_abc123";
+
+    private Fixtures() {
+    }
+
+    static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json()
+                .serializationInclusion(JsonInclude.Include.NON_NULL)
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    static Payment payment() {
+        Payment payment = new Payment();
+        payment.setId("pay_0a1b2c3d0000000k");
+        payment.setOrderId("order_0a1b2c3c0000000j");
+        payment.setMerchantId(MERCHANT_ID);
+        payment.setAmount(50000);
+        payment.setCurrency("INR");
+        payment.setMethod("card");
+        payment.setStatus("success");
+        payment.setCardNetwork("visa");
+        payment.setCardLast4("1111");
+        payment.setCreatedAt(LocalDateTime.of(2025, 3, 14, 10, 15, 30));
+        payment.setUpdatedAt(LocalDateTime.of(2025, 3, 14, 10, 15, 37));
+        return payment;
+    }
+
+    static ProcessPaymentJob paymentJob() {
+        return new ProcessPaymentJob("pay_0a1b2c3d0000000k", "idem_7f3e9a1c-4b2d-4e8f-9a6b-1c2d3e4f5a6b");
+    }
+
+    /** The payload PaymentWorker builds for a payment.success event. */
+    static Map<String, Object> webhookPayload() {
+        Payment payment = payment();
+        Map<String, Object> paymentData = new HashMap<>();
+        paymentData.put("id", payment.getId());
+        paymentData.put("order_id", payment.getOrderId());
+        paymentData.put("amount", payment.getAmount());
+        paymentData.put("currency", payment.getCurrency());
+        paymentData.put("method", payment.getMethod());
+        paymentData.put("status", payment.getStatus());
+        paymentData.put("created_at", payment.getCreatedAt().toString());
+
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("event", "payment.success");
+        payload.put("timestamp", 1741947337L);
+        payload.put("data", Map.of("payment", paymentData));
+        return payload;
+    }
+
+    /** A first delivery as enqueued today: the body is serialized once and the payload map left out. */
+    static DeliverWebhookJob webhookJob(ObjectMapper objectMapper) {
+        try {
+            DeliverWebhookJob job = new DeliverWebhookJob();
+            job.setMerchantId(MERCHANT_ID);
+            job.setEventType("payment.success");
+            job.setBody(objectMapper.writeValueAsBytes(webhookPayload()));
+            return job;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** A webhook job carrying only the payload map, as enqueued before bodies were serialized up front. */
+    static DeliverWebhookJob legacyWebhookJob() {
+        DeliverWebhookJob job = new DeliverWebhookJob();
+        job.setMerchantId(MERCHANT_ID);
+        job.setEventType("payment.success");
+        job.setPayload(webhookPayload());
+        return job;
+    }
+}
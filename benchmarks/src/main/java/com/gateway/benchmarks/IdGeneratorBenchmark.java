@@ -0,0 +1,44 @@
+package com.gateway.benchmarks;
+
+import com.gateway.services.IdGenerator;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Id generation for orders, payments and refunds: {@link IdGenerator} (node 0, no Redis) against
+ * the random alphanumeric ids it replaced. The random ids also cost an existsById query per id in
+ * the services, which is not measured here.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdGeneratorBenchmark {
+
+    private IdGenerator idGenerator;
+
+    @Setup
+    public void setUp() {
+        idGenerator = new IdGenerator(null);
+    }
+
+    @Benchmark
+    public String timeOrdered() {
+        return idGenerator.paymentId();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String timeOrderedContended() {
+        return idGenerator.paymentId();
+    }
+
+    @Benchmark
+    public String randomAlphanumeric() {
+        return "pay_" + RandomStringUtils.randomAlphanumeric(16);
+    }
+}
@@ -0,0 +1,85 @@
+package com.gateway.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gateway.jobs.DeliverWebhookJob;
+import com.gateway.jobs.ProcessPaymentJob;
+import com.gateway.queue.JobCodec;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queue encoding of each job type: {@link JobCodec} against the GenericJackson2Json format it
+ * replaced. The legacy decode includes the {@code convertValue} pass workers needed to get from
+ * the deserialized map to the job class. Encoded sizes are reported by {@link BenchmarkMain}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JobCodecBenchmark {
+
+    public enum JobType {
+        PAYMENT(ProcessPaymentJob.class),
+        WEBHOOK(DeliverWebhookJob.class),
+        WEBHOOK_LEGACY_PAYLOAD(DeliverWebhookJob.class);
+
+        final Class<?> jobClass;
+
+        JobType(Class<?> jobClass) {
+            this.jobClass = jobClass;
+        }
+
+        Object sample(ObjectMapper objectMapper) {
+            return switch (this) {
+                case PAYMENT -> Fixtures.paymentJob();
+                case WEBHOOK -> Fixtures.webhookJob(objectMapper);
+                case WEBHOOK_LEGACY_PAYLOAD -> Fixtures.legacyWebhookJob();
+            };
+        }
+    }
+
+    @Param
+    public JobType jobType;
+
+    private ObjectMapper objectMapper;
+    private JobCodec codec;
+    private GenericJackson2JsonRedisSerializer json;
+
+    private Object job;
+    private byte[] codecBytes;
+    private byte[] jsonBytes;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Fixtures.objectMapper();
+        codec = new JobCodec(objectMapper);
+        json = new GenericJackson2JsonRedisSerializer();
+        job = jobType.sample(objectMapper);
+        codecBytes = codec.encode(job);
+        jsonBytes = json.serialize(job);
+    }
+
+    @Benchmark
+    public byte[] codecEncode() {
+        return codec.encode(job);
+    }
+
+    @Benchmark
+    public Object codecDecode() {
+        return codec.decode(codecBytes);
+    }
+
+    @Benchmark
+    public byte[] jsonEncode() {
+        return json.serialize(job);
+    }
+
+    @Benchmark
+    public Object jsonDecode() {
+        return objectMapper.convertValue(json.deserialize(jsonBytes), jobType.jobClass);
+    }
+}
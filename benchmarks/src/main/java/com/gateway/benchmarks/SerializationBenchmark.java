@@ -0,0 +1,104 @@
+package com.gateway.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gateway.jobs.DeliverWebhookJob;
+import com.gateway.jobs.ProcessPaymentJob;
+import com.gateway.models.Payment;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson round trips of the objects the gateway serializes most: queued jobs, the Payment entity
+ * (API responses, checkout cache, status events) and webhook payloads.
+ *
+ * The {@code convertValue} benchmarks measure the second mapping pass workers ran on every job
+ * when the queue handed them the LinkedHashMap produced by GenericJackson2Json.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+
+    private ObjectMapper objectMapper;
+
+    private ProcessPaymentJob paymentJob;
+    private DeliverWebhookJob webhookJob;
+    private Payment payment;
+    private Map<String, Object> webhookPayload;
+
+    private byte[] paymentJobJson;
+    private byte[] webhookJobJson;
+    private byte[] paymentJson;
+
+    private Map<String, Object> paymentJobMap;
+    private Map<String, Object> webhookJobMap;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = Fixtures.objectMapper();
+        paymentJob = Fixtures.paymentJob();
+        webhookJob = Fixtures.legacyWebhookJob();
+        payment = Fixtures.payment();
+        webhookPayload = Fixtures.webhookPayload();
+
+        paymentJobJson = objectMapper.writeValueAsBytes(paymentJob);
+        webhookJobJson = objectMapper.writeValueAsBytes(webhookJob);
+        paymentJson = objectMapper.writeValueAsBytes(payment);
+
+        paymentJobMap = objectMapper.readValue(paymentJobJson, MAP_TYPE);
+        webhookJobMap = objectMapper.readValue(webhookJobJson, MAP_TYPE);
+    }
+
+    @Benchmark
+    public byte[] writePaymentJob() throws Exception {
+        return objectMapper.writeValueAsBytes(paymentJob);
+    }
+
+    @Benchmark
+    public ProcessPaymentJob readPaymentJob() throws Exception {
+        return objectMapper.readValue(paymentJobJson, ProcessPaymentJob.class);
+    }
+
+    @Benchmark
+    public byte[] writeWebhookJob() throws Exception {
+        return objectMapper.writeValueAsBytes(webhookJob);
+    }
+
+    @Benchmark
+    public DeliverWebhookJob readWebhookJob() throws Exception {
+        return objectMapper.readValue(webhookJobJson, DeliverWebhookJob.class);
+    }
+
+    @Benchmark
+    public byte[] writePayment() throws Exception {
+        return objectMapper.writeValueAsBytes(payment);
+    }
+
+    @Benchmark
+    public Payment readPayment() throws Exception {
+        return objectMapper.readValue(paymentJson, Payment.class);
+    }
+
+    @Benchmark
+    public byte[] writeWebhookPayload() throws Exception {
+        return objectMapper.writeValueAsBytes(webhookPayload);
+    }
+
+    @Benchmark
+    public ProcessPaymentJob convertValuePaymentJob() {
+        return objectMapper.convertValue(paymentJobMap, ProcessPaymentJob.class);
+    }
+
+    @Benchmark
+    public DeliverWebhookJob convertValueWebhookJob() {
+        return objectMapper.convertValue(webhookJobMap, DeliverWebhookJob.class);
+    }
+}
@@ -0,0 +1,80 @@
+package com.gateway.benchmarks;
+
+import com.gateway.services.BinTable;
+import com.gateway.services.ValidationService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.ClassPathResource;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Card and VPA checks run on every POST /payments, next to the regex-based versions they replaced.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Card {
+        @Param({"4111111111111111", "5500 0000 0000 0004", "6011-0000-0000-0004"})
+        public String number;
+    }
+
+    private static final String VPA = "user.name@okaxis";
+
+    private ValidationService validationService;
+
+    @Setup
+    public void setUp() {
+        validationService = new ValidationService(new BinTable(new ClassPathResource("bin-ranges.csv")));
+    }
+
+    @Benchmark
+    public boolean luhn(Card card) {
+        return validationService.validateLuhn(card.number);
+    }
+
+    @Benchmark
+    public boolean luhnRegex(Card card) {
+        // The original check: strip separators with a regex, then walk the digits
+        String digits = card.number.replaceAll("[\\s-]", "");
+        if (!digits.matches("\\d{13,19}")) return false;
+        int sum = 0;
+        boolean alternate = false;
+        for (int i = digits.length() - 1; i >= 0; i--) {
+            int n = Integer.parseInt(digits.substring(i, i + 1));
+            if (alternate) {
+                n *= 2;
+                if (n > 9) n -= 9;
+            }
+            sum += n;
+            alternate = !alternate;
+        }
+        return sum % 10 == 0;
+    }
+
+    @Benchmark
+    public String networkDetection(Card card) {
+        return validationService.detectCardNetwork(card.number);
+    }
+
+    @Benchmark
+    public String networkDetectionRegex(Card card) {
+        // The original prefix checks, over the sanitized number
+        String n = card.number.replaceAll("[\\s-]", "");
+        if (n.startsWith("4")) return "visa";
+        if (n.matches("^5[1-5].*")) return "mastercard";
+        if (n.startsWith("34") || n.startsWith("37")) return "amex";
+        if (n.startsWith("60") || n.startsWith("65") || n.matches("^8[1-9].*")) return "rupay";
+        return "unknown";
+    }
+
+    @Benchmark
+    public boolean vpaRegex() {
+        return validationService.validateVPA(VPA);
+    }
+}
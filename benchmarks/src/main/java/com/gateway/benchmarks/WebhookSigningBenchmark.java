@@ -0,0 +1,50 @@
+package com.gateway.benchmarks;
+
+import com.gateway.services.WebhookSigner;
+import org.apache.commons.codec.binary.Hex;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HMAC-SHA256 of a webhook body as WebhookWorker signs it: through the pooled {@link WebhookSigner}
+ * and with a Mac set up per delivery, as the worker did before.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WebhookSigningBenchmark {
+
+    private WebhookSigner signer;
+    private byte[] body;
+
+    @Setup
+    public void setUp() throws Exception {
+        signer = new WebhookSigner();
+        body = Fixtures.objectMapper().writeValueAsBytes(Fixtures.webhookPayload());
+    }
+
+    @Benchmark
+    public String pooledSigner() {
+        return signer.sign(Fixtures.MERCHANT_ID, Fixtures.WEBHOOK_SECRET, body);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String pooledSignerContended() {
+        return signer.sign(Fixtures.MERCHANT_ID, Fixtures.WEBHOOK_SECRET, body);
+    }
+
+    @Benchmark
+    public String macPerCall() throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(Fixtures.WEBHOOK_SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return Hex.encodeHexString(mac.doFinal(body));
+    }
+}
@@ -1,6 +1,41 @@
 import React, { useState } from 'react';
 import axios from 'axios';
 
+const API_URL = 'http://localhost:8000/api/v1';
+
+// Resolves with the payment once it leaves 'pending': pushed over SSE, with long-polling as fallback
+const waitForFinalStatus = (paymentId) => new Promise((resolve, reject) => {
+    const longPoll = async () => {
+        try {
+            let payment = { status: 'pending' };
+            while (payment.status === 'pending') {
+                const response = await axios.get(`${API_URL}/payments/public/${paymentId}/wait`, { params: { status: 'pending' } });
+                payment = response.data;
+            }
+            resolve(payment);
+        } catch (err) {
+            reject(err);
+        }
+    };
+
+    if (!window.EventSource) {
+        longPoll();
+        return;
+    }
+    const source = new EventSource(`${API_URL}/payments/public/${paymentId}/events`);
+    source.addEventListener('payment', (event) => {
+        const payment = JSON.parse(event.data);
+        if (payment.status !== 'pending') {
+            source.close();
+            resolve(payment);
+        }
+    });
+    source.onerror = () => {
+        // EventSource retries on its own after a clean close; only fall back if it gave up
+        if (source.readyState === EventSource.CLOSED) longPoll();
+    };
+});
+
 const Checkout = () => {
     const searchParams = new URLSearchParams(window.location.search);
     const orderId = searchParams.get('order_id') || searchParams.get('orderId') || 'ORDER_12345';
@@ -38,18 +73,18 @@ const Checkout = () => {
                 })
             };
 
-            const response = await axios.post('http://localhost:8000/api/v1/payments', payload);
+            const response = await axios.post(`${API_URL}/payments`, payload);
 
-            // Poll for status or assume success for this demo flow if async returns pending
-            // For 'Razorpay' feel, we show success immediately if API returns 201/200
-            // But our API returns 'pending'.
-            // Let's verify status.
+            // Payments are processed asynchronously: wait for the pushed final status instead of polling
+            const payment = response.data.status === 'pending'
+                ? await waitForFinalStatus(response.data.id)
+                : response.data;
 
-            if (response.data.status === 'pending' || response.data.status === 'success') {
+            if (payment.status === 'success') {
                 setStatus('success');
-                setReceipt(response.data);
+                setReceipt(payment);
                 if (isEmbedded) {
-                    window.parent.postMessage({ type: 'payment_success', data: response.data }, '*');
+                    window.parent.postMessage({ type: 'payment_success', data: payment }, '*');
                 }
             } else {
                 throw new Error('Payment failed');
@@ -13,7 +13,7 @@ const Dashboard = () => {
     // Webhook States
     const [webhookConfig, setWebhookConfig] = useState({ url: '', secret: '' });
     const [webhookLogs, setWebhookLogs] = useState([]);
-    const [logsMeta, setLogsMeta] = useState({ total: 0, offset: 0, limit: 10 });
+    const [logsMeta, setLogsMeta] = useState({ total: 0, cursor: null, nextCursor: null, hasMore: false, history: [] });
     const [configStatus, setConfigStatus] = useState('');
     const [isLoading, setIsLoading] = useState(false);
 
@@ -53,11 +53,11 @@ const Dashboard = () => {
     const fetchStats = async () => {
         try {
             const data = await getStats();
-            const totalTransactions = data.length;
-            const totalAmount = data.reduce((sum, p) => p.status === 'success' ? sum + p.amount : sum, 0);
-            const successCount = data.filter(p => p.status === 'success').length;
-            const successRate = totalTransactions > 0 ? (successCount / totalTransactions) * 100 : 0;
-            setStats({ totalTransactions, totalAmount, successRate });
+            setStats({
+                totalTransactions: data.totalTransactions || 0,
+                totalAmount: data.totalAmount || 0,
+                successRate: data.successRate || 0
+            });
         } catch (err) {
             console.error("Stats fetch failed", err);
         }
@@ -67,7 +67,7 @@ const Dashboard = () => {
         setIsLoading(true);
         try {
             const data = await getPayments();
-            const sorted = Array.isArray(data) ? data.reverse() : [];
+            const sorted = Array.isArray(data) ? data : [];
             setPayments(sorted);
         } catch (err) {
             console.error("Payments fetch failed", err);
@@ -81,7 +81,7 @@ const Dashboard = () => {
         setIsLoading(true);
         try {
             const data = await getRefunds();
-            const sorted = Array.isArray(data) ? data.reverse() : [];
+            const sorted = Array.isArray(data) ? data : [];
             setRefunds(sorted);
         } catch (err) {
             console.error("Refunds fetch failed", err);
@@ -104,11 +104,12 @@ const Dashboard = () => {
         }
     };
 
-    const fetchWebhookLogs = async (offset = 0) => {
+    // history holds the cursors of earlier pages for the Previous button
+    const fetchWebhookLogs = async (cursor = null, history = []) => {
         try {
-            const data = await getWebhookLogs(offset, 10);
+            const data = await getWebhookLogs(cursor, 10);
             setWebhookLogs(data.data);
-            setLogsMeta({ total: data.total, offset: data.offset, limit: data.limit });
+            setLogsMeta({ total: data.total, cursor, nextCursor: data.next_cursor, hasMore: data.has_more, history });
         } catch (err) {
             console.error("Logs fetch failed", err);
         }
@@ -140,7 +141,7 @@ const Dashboard = () => {
     const handleRetry = async (id) => {
         try {
             await retryWebhook(id);
-            fetchWebhookLogs(logsMeta.offset);
+            fetchWebhookLogs(logsMeta.cursor, logsMeta.history);
         } catch (err) {
             alert("Retry failed");
         }
@@ -660,18 +661,18 @@ const Dashboard = () => {
                                         </table>
                                     </div>
                                     <div className="px-8 py-5 border-t border-slate-100 flex justify-between items-center text-sm text-slate-500 bg-slate-50/30">
-                                        <span>Page {Number(logsMeta.offset) / Number(logsMeta.limit) + 1}</span>
+                                        <span>Page {logsMeta.history.length + 1} · {logsMeta.total} total</span>
                                         <div className="space-x-2">
                                             <button
-                                                disabled={Number(logsMeta.offset) === 0}
-                                                onClick={() => fetchWebhookLogs(Math.max(0, Number(logsMeta.offset) - Number(logsMeta.limit)))}
+                                                disabled={logsMeta.history.length === 0}
+                                                onClick={() => fetchWebhookLogs(logsMeta.history[logsMeta.history.length - 1], logsMeta.history.slice(0, -1))}
                                                 className="px-4 py-2 border border-slate-200 rounded-lg bg-white hover:bg-slate-50 disabled:opacity-50 font-medium transition-colors shadow-sm"
                                             >
                                                 Previous
                                             </button>
                                             <button
-                                                disabled={Number(logsMeta.offset) + Number(logsMeta.limit) >= Number(logsMeta.total)}
-                                                onClick={() => fetchWebhookLogs(Number(logsMeta.offset) + Number(logsMeta.limit))}
+                                                disabled={!logsMeta.hasMore}
+                                                onClick={() => fetchWebhookLogs(logsMeta.nextCursor, [...logsMeta.history, logsMeta.cursor])}
                                                 className="px-4 py-2 border border-slate-200 rounded-lg bg-white hover:bg-slate-50 disabled:opacity-50 font-medium transition-colors shadow-sm"
                                             >
                                                 Next
@@ -44,14 +44,15 @@ export const login = async (email, password) => {
 };
 
 export const getStats = async () => {
-    // Dashboard expects an array of payments to calculate stats locally
-    const response = await api.get('/payments');
+    // Counters are maintained server side; the payment list is paginated
+    const response = await api.get('/payments/stats');
     return response.data;
 };
 
-export const getPayments = async () => {
-    const response = await api.get('/payments');
-    return response.data;
+// List endpoints are cursor paginated, newest first: { data, has_more, next_cursor }
+export const getPayments = async (limit = 100, cursor) => {
+    const response = await api.get('/payments', { params: { limit, cursor } });
+    return response.data.data;
 };
 
 /**
@@ -69,8 +70,9 @@ export const createPayment = async (paymentData) => {
 };
 
 // Webhook APIs
-export const getWebhookLogs = async (offset = 0, limit = 10) => {
-    const response = await api.get(`/webhooks?offset=${offset}&limit=${limit}`);
+// Cursor paginated: { data, has_more, next_cursor, total } (total is cached, may lag slightly)
+export const getWebhookLogs = async (cursor, limit = 10) => {
+    const response = await api.get('/webhooks', { params: { limit, cursor } });
     return response.data;
 };
 
@@ -79,9 +81,9 @@ export const retryWebhook = async (webhookId) => {
     return response.data;
 };
 
-export const getRefunds = async () => {
-    const response = await api.get('/refunds');
-    return response.data;
+export const getRefunds = async (limit = 100, cursor) => {
+    const response = await api.get('/refunds', { params: { limit, cursor } });
+    return response.data.data;
 };
 
 export const getMerchant = async () => {
@@ -0,0 +1,99 @@
+package com.gateway.loadtest;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.LoggerFactory;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+
+/**
+ * Local stand-ins for the docker-compose services: a Redis server and a MariaDB server, both run
+ * from binaries shipped in jars on free ports, with throwaway data directories.
+ *
+ * Real servers rather than in-memory fakes, because the gateway depends on Lua scripts, blocking
+ * list moves and streams in Redis, and on {@code SKIP LOCKED} and {@code ON DUPLICATE KEY UPDATE}
+ * in MySQL. MariaDB accepts the same SQL and the MySQL driver.
+ */
+@Slf4j
+final class EmbeddedInfrastructure implements AutoCloseable {
+
+    static final String DATABASE = "gateway";
+
+    private final RedisServer redis;
+    private final DB db;
+    private final int redisPort;
+    private final int dbPort;
+
+    private EmbeddedInfrastructure(RedisServer redis, int redisPort, DB db, int dbPort) {
+        this.redis = redis;
+        this.redisPort = redisPort;
+        this.db = db;
+        this.dbPort = dbPort;
+    }
+
+    static EmbeddedInfrastructure start() throws IOException, ManagedProcessException {
+        // The servers' console output is logged line by line at INFO before Spring Boot configures logging
+        ((Logger) LoggerFactory.getLogger("ch.vorburger")).setLevel(Level.WARN);
+
+        int redisPort = freePort();
+        RedisServer redis = RedisServer.newRedisServer()
+                .port(redisPort)
+                .bind("127.0.0.1")
+                // Nothing to keep after the run
+                .setting("save \"\"")
+                .setting("appendonly no")
+                .build();
+        redis.start();
+        log.info("Redis listening on port {}", redisPort);
+
+        DB db;
+        try {
+            DBConfigurationBuilder config = DBConfigurationBuilder.newBuilder().setPort(0);
+            // mysqld refuses to run as root unless told to
+            if ("root".equals(System.getProperty("user.name"))) config.addArg("--user=root");
+            db = DB.newEmbeddedDB(config.build());
+            db.start();
+        } catch (ManagedProcessException | RuntimeException e) {
+            redis.stop();
+            throw e;
+        }
+        int dbPort = db.getConfiguration().getPort();
+        log.info("MariaDB listening on port {}", dbPort);
+        return new EmbeddedInfrastructure(redis, redisPort, db, dbPort);
+    }
+
+    int redisPort() {
+        return redisPort;
+    }
+
+    // The database is created over JDBC: the bundled mariadb client needs libraries not every box has
+    String jdbcUrl() {
+        return "jdbc:mysql://127.0.0.1:" + dbPort + "/" + DATABASE + "?createDatabaseIfNotExist=true";
+    }
+
+    @Override
+    public void close() {
+        try {
+            db.stop();
+        } catch (ManagedProcessException e) {
+            log.warn("Failed to stop MariaDB: {}", e.getMessage());
+        }
+        try {
+            redis.stop();
+        } catch (IOException e) {
+            log.warn("Failed to stop Redis: {}", e.getMessage());
+        }
+    }
+
+    static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.gateway.loadtest;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Matches the asynchronous outcomes of each payment (its final status announced to the API
+ * nodes, its webhook reaching the merchant) to the moment its checkout was scheduled.
+ *
+ * Either outcome can be observed before the driver has the payment id from the API response,
+ * so whichever side comes second records the latency.
+ */
+final class FlowTracker {
+
+    private static final long UNKNOWN = Long.MIN_VALUE;
+
+    private final Latencies finalStatus = new Latencies("time to final status");
+    private final Latencies webhook = new Latencies("time to webhook delivery");
+
+    private final Map<String, Flow> flows = new ConcurrentHashMap<>();
+
+    private static final class Flow {
+        long startedAt = UNKNOWN;
+        boolean measured;
+        long finalAt = UNKNOWN;
+        long webhookAt = UNKNOWN;
+    }
+
+    Latencies finalStatus() {
+        return finalStatus;
+    }
+
+    Latencies webhook() {
+        return webhook;
+    }
+
+    /** A payment was created for a checkout scheduled at {@code startedAt} (System.nanoTime). */
+    void started(String paymentId, long startedAt, boolean measured) {
+        Flow flow = flows.computeIfAbsent(paymentId, id -> new Flow());
+        synchronized (flow) {
+            flow.startedAt = startedAt;
+            flow.measured = measured;
+            if (flow.finalAt != UNKNOWN) recordFinal(flow);
+            if (flow.webhookAt != UNKNOWN) recordWebhook(flow);
+        }
+        removeIfDone(paymentId, flow);
+    }
+
+    void finalStatus(String paymentId, long at) {
+        Flow flow = flows.computeIfAbsent(paymentId, id -> new Flow());
+        synchronized (flow) {
+            if (flow.finalAt != UNKNOWN) return;
+            flow.finalAt = at;
+            if (flow.startedAt != UNKNOWN) recordFinal(flow);
+        }
+        removeIfDone(paymentId, flow);
+    }
+
+    void webhookDelivered(String paymentId, long at) {
+        Flow flow = flows.computeIfAbsent(paymentId, id -> new Flow());
+        synchronized (flow) {
+            // Only the first delivery counts; retries of the same event are ignored
+            if (flow.webhookAt != UNKNOWN) return;
+            flow.webhookAt = at;
+            if (flow.startedAt != UNKNOWN) recordWebhook(flow);
+        }
+        removeIfDone(paymentId, flow);
+    }
+
+    /** Measured payments still waiting for their final status and for their webhook. */
+    long[] outstanding() {
+        long status = 0;
+        long webhooks = 0;
+        for (Flow flow : flows.values()) {
+            synchronized (flow) {
+                if (!flow.measured) continue;
+                if (flow.finalAt == UNKNOWN) status++;
+                if (flow.webhookAt == UNKNOWN) webhooks++;
+            }
+        }
+        return new long[] {status, webhooks};
+    }
+
+    /** Counts whatever is still outstanding as missing. */
+    void finish() {
+        long[] missing = outstanding();
+        finalStatus.fail(missing[0]);
+        webhook.fail(missing[1]);
+    }
+
+    private void recordFinal(Flow flow) {
+        if (flow.measured) finalStatus.record(flow.finalAt - flow.startedAt);
+    }
+
+    private void recordWebhook(Flow flow) {
+        if (flow.measured) webhook.record(flow.webhookAt - flow.startedAt);
+    }
+
+    private void removeIfDone(String paymentId, Flow flow) {
+        synchronized (flow) {
+            if (flow.startedAt == UNKNOWN || flow.finalAt == UNKNOWN || flow.webhookAt == UNKNOWN) return;
+        }
+        flows.remove(paymentId, flow);
+    }
+}
@@ -0,0 +1,70 @@
+package com.gateway.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency distribution of one measured step, recorded in microseconds, plus a count of attempts
+ * that failed or never completed.
+ */
+final class Latencies {
+
+    // Anything slower than an hour is clamped
+    private static final long MAX_MICROS = TimeUnit.HOURS.toMicros(1);
+
+    private final String name;
+    private final Histogram histogram = new ConcurrentHistogram(MAX_MICROS, 3);
+    private final LongAdder failures = new LongAdder();
+
+    Latencies(String name) {
+        this.name = name;
+    }
+
+    String name() {
+        return name;
+    }
+
+    void record(long nanos) {
+        histogram.recordValue(Math.min(Math.max(TimeUnit.NANOSECONDS.toMicros(nanos), 0), MAX_MICROS));
+    }
+
+    void fail() {
+        failures.increment();
+    }
+
+    void fail(long count) {
+        failures.add(count);
+    }
+
+    long count() {
+        return histogram.getTotalCount();
+    }
+
+    long failures() {
+        return failures.sum();
+    }
+
+    double percentileMs(double percentile) {
+        return count() == 0 ? 0 : histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    double maxMs() {
+        return count() == 0 ? 0 : histogram.getMaxValue() / 1000.0;
+    }
+
+    Map<String, Object> toJson() {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("count", count());
+        json.put("failures", failures());
+        json.put("p50_ms", percentileMs(50));
+        json.put("p99_ms", percentileMs(99));
+        json.put("p999_ms", percentileMs(99.9));
+        json.put("max_ms", maxMs());
+        return json;
+    }
+}
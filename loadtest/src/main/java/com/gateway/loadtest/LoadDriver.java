@@ -0,0 +1,158 @@
+package com.gateway.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load: checkouts are started on a fixed schedule regardless of how many are still in
+ * flight, each on its own virtual thread. A checkout creates an order and then a payment for it,
+ * the way a merchant backend and the checkout page do.
+ *
+ * Both API latencies are taken from the time the checkout was scheduled to start, not from when
+ * each request was actually sent, so a stalled gateway shows up in the percentiles instead of
+ * slowing the load down (coordinated omission). The payment latency therefore includes the
+ * order call before it.
+ */
+@Slf4j
+final class LoadDriver {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final int MAX_LOGGED_FAILURES = 10;
+
+    private final LoadTestOptions options;
+    private final URI baseUri;
+    private final String apiKey;
+    private final String apiSecret;
+    private final FlowTracker tracker;
+    private final ObjectMapper objectMapper;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final Latencies orders = new Latencies("POST /api/v1/orders");
+    private final Latencies payments = new Latencies("POST /api/v1/payments");
+    private final LongAdder started = new LongAdder();
+    private final AtomicInteger loggedFailures = new AtomicInteger();
+
+    LoadDriver(LoadTestOptions options, URI baseUri, String apiKey, String apiSecret,
+               FlowTracker tracker, ObjectMapper objectMapper) {
+        this.options = options;
+        this.baseUri = baseUri;
+        this.apiKey = apiKey;
+        this.apiSecret = apiSecret;
+        this.tracker = tracker;
+        this.objectMapper = objectMapper;
+    }
+
+    Latencies orders() {
+        return orders;
+    }
+
+    Latencies payments() {
+        return payments;
+    }
+
+    /** Measured checkouts started. */
+    long started() {
+        return started.sum();
+    }
+
+    /** Runs the warmup and the measured load, then waits for the API calls still in flight. */
+    void run() throws InterruptedException {
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / options.rate());
+        long start = System.nanoTime();
+        long measureFrom = start + options.warmup().toNanos();
+        long end = measureFrom + options.duration().toNanos();
+        log.info("Driving {} checkouts/s: {} warmup, then {} measured", options.rate(), options.warmup(), options.duration());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; ; i++) {
+                long scheduledAt = start + i * intervalNanos;
+                if (scheduledAt >= end) break;
+                long wait = scheduledAt - System.nanoTime();
+                if (wait > 0) LockSupport.parkNanos(wait);
+                if (Thread.interrupted()) throw new InterruptedException();
+
+                boolean measured = scheduledAt >= measureFrom;
+                if (measured) started.increment();
+                executor.execute(() -> checkout(scheduledAt, measured));
+            }
+        }
+    }
+
+    private void checkout(long scheduledAt, boolean measured) {
+        String orderId;
+        try {
+            JsonNode order = post("/api/v1/orders", Map.of("amount", 50000, "currency", "INR",
+                    "receipt", "loadtest_" + UUID.randomUUID()), null);
+            if (measured) orders.record(System.nanoTime() - scheduledAt);
+            orderId = order.path("id").asText();
+        } catch (Exception e) {
+            fail(orders, measured, e);
+            return;
+        }
+
+        try {
+            JsonNode payment = post("/api/v1/payments", paymentRequest(orderId), UUID.randomUUID().toString());
+            // Also from the scheduled start, so a stall during the order call is not dropped
+            if (measured) payments.record(System.nanoTime() - scheduledAt);
+            tracker.started(payment.path("id").asText(), scheduledAt, measured);
+        } catch (Exception e) {
+            fail(payments, measured, e);
+        }
+    }
+
+    private Map<String, Object> paymentRequest(String orderId) {
+        if (ThreadLocalRandom.current().nextDouble() < options.upiShare()) {
+            return Map.of("order_id", orderId, "method", "upi", "vpa", "loadtest@okaxis");
+        }
+        return Map.of("order_id", orderId, "method", "card", "card", Map.of(
+                "number", "4111111111111111",
+                "expiry_month", "12",
+                "expiry_year", "2099",
+                "cvv", "123",
+                "holder_name", "Load Test"));
+    }
+
+    private JsonNode post(String path, Object body, String idempotencyKey) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .header("X-Api-Key", apiKey)
+                .header("X-Api-Secret", apiSecret)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+        if (idempotencyKey != null) request.header("Idempotency-Key", idempotencyKey);
+
+        HttpResponse<byte[]> response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 201) {
+            throw new IllegalStateException(path + " returned " + response.statusCode() + ": " + new String(response.body()));
+        }
+        return objectMapper.readTree(response.body());
+    }
+
+    private void fail(Latencies latencies, boolean measured, Exception e) {
+        if (measured) latencies.fail();
+        // The first few are enough to see what is wrong
+        if (loggedFailures.incrementAndGet() <= MAX_LOGGED_FAILURES) {
+            log.warn("{} failed: {}", latencies.name(), e.toString());
+        }
+    }
+}
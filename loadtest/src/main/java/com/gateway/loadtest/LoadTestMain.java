@@ -0,0 +1,216 @@
+package com.gateway.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.gateway.PaymentGatewayApplication;
+import com.gateway.services.PaymentStatusEvents;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * End-to-end load harness: runs the gateway (API and workers in one process) against embedded
+ * Redis and MariaDB, points the test merchant's webhooks at a local stub, drives checkouts at a
+ * fixed rate and reports latency percentiles for the API calls, for the time until a payment's
+ * final status reaches the API nodes, and for the time until its webhook reaches the merchant.
+ *
+ * Both asynchronous latencies are measured from when the checkout was scheduled to start, so
+ * they include the API calls, the outbox relay, the queue, the simulated bank delay and, for
+ * webhooks, signing and delivery.
+ */
+@Slf4j
+public class LoadTestMain {
+
+    private static final Set<String> FINAL_STATUSES = Set.of("success", "failed");
+    private static final String WEBHOOK_SECRET = "whsec_loadtest";
+
+    public static void main(String[] args) throws Exception {
+        if (List.of(args).contains("--help") || List.of(args).contains("-h")) {
+            System.out.print(LoadTestOptions.USAGE);
+            return;
+        }
+
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(LoadTestOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        int exitCode = 0;
+        try {
+            run(options);
+        } catch (Exception e) {
+            log.error("Load test failed", e);
+            exitCode = 1;
+        }
+        // Lettuce, Tomcat and the embedded servers' watchdogs keep threads around
+        System.exit(exitCode);
+    }
+
+    private static void run(LoadTestOptions options) throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        FlowTracker tracker = new FlowTracker();
+
+        try (EmbeddedInfrastructure infrastructure = EmbeddedInfrastructure.start();
+             WebhookReceiver receiver = WebhookReceiver.start(tracker, objectMapper);
+             ConfigurableApplicationContext gateway = startGateway(options, infrastructure)) {
+
+            Environment env = gateway.getEnvironment();
+            URI baseUri = URI.create("http://127.0.0.1:" + env.getProperty("local.server.port") + "/");
+            String apiKey = env.getProperty("TEST_API_KEY", "key_test_abc123");
+            String apiSecret = env.getProperty("TEST_API_SECRET", "secret_test_xyz789");
+
+            configureWebhook(baseUri, apiKey, apiSecret, receiver.url(), objectMapper);
+            listenForFinalStatuses(gateway, tracker, objectMapper);
+
+            LoadDriver driver = new LoadDriver(options, baseUri, apiKey, apiSecret, tracker, objectMapper);
+            driver.run();
+            drain(tracker, options.drainTimeout());
+            tracker.finish();
+
+            List<Latencies> results = List.of(driver.orders(), driver.payments(), tracker.finalStatus(), tracker.webhook());
+            printReport(options, driver.started(), receiver.received(), results);
+            writeReport(options, driver.started(), receiver.received(), results);
+
+            // Consumers blocked on Redis outlive its connection factory during shutdown and log every failed call
+            LoggingSystem logging = LoggingSystem.get(LoadTestMain.class.getClassLoader());
+            logging.setLogLevel("com.gateway.workers", LogLevel.OFF);
+            logging.setLogLevel("io.lettuce.core", LogLevel.OFF);
+        }
+    }
+
+    private static ConfigurableApplicationContext startGateway(LoadTestOptions options, EmbeddedInfrastructure infrastructure) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("server.port", "0");
+        properties.put("spring.profiles.active", "worker");
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("spring.datasource.url", infrastructure.jdbcUrl());
+        properties.put("spring.datasource.username", "root");
+        properties.put("spring.datasource.password", "");
+        // MySQL8Dialect binds JSON columns with cast(? as json), which MariaDB does not accept
+        properties.put("spring.jpa.database-platform", "org.hibernate.dialect.MariaDBDialect");
+        // Through the MySQL driver the server reports itself as 5.5.5-10.11.x
+        properties.put("spring.jpa.properties.jakarta.persistence.database-major-version", "10");
+        properties.put("spring.jpa.properties.jakarta.persistence.database-minor-version", "11");
+        properties.put("spring.data.redis.host", "127.0.0.1");
+        properties.put("spring.data.redis.port", Integer.toString(infrastructure.redisPort()));
+        properties.put("app.test.mode", Boolean.toString(options.bankDelayMs() >= 0));
+        properties.put("app.test.delay", Long.toString(Math.max(options.bankDelayMs(), 0)));
+        properties.put("app.id.node-id", "1");
+        // SQL logging at DEBUG/TRACE would dominate the profile
+        properties.put("logging.level.root", "WARN");
+        properties.put("logging.level.org.hibernate.SQL", "WARN");
+        properties.put("logging.level.org.hibernate.type.descriptor.sql.BasicBinder", "WARN");
+        properties.put("logging.level.com.gateway.loadtest", "INFO");
+        for (String arg : options.gatewayArgs()) {
+            int eq = arg.indexOf('=');
+            properties.put(arg.substring(2, eq > 0 ? eq : arg.length()), eq > 0 ? arg.substring(eq + 1) : "");
+        }
+
+        // Command line arguments, so they take precedence over application.properties and its placeholders
+        String[] args = properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+        log.info("Starting gateway");
+        return new SpringApplicationBuilder(PaymentGatewayApplication.class).run(args);
+    }
+
+    private static void configureWebhook(URI baseUri, String apiKey, String apiSecret, String url,
+                                         ObjectMapper objectMapper) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve("/api/v1/merchants/webhook-config"))
+                .header("Content-Type", "application/json")
+                .header("X-Api-Key", apiKey)
+                .header("X-Api-Secret", apiSecret)
+                .PUT(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(Map.of("url", url, "secret", WEBHOOK_SECRET))))
+                .build();
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Could not set the webhook URL: " + response.statusCode() + " " + response.body());
+            }
+        }
+    }
+
+    // Same channel the checkout's SSE and long-poll endpoints are fed from
+    private static void listenForFinalStatuses(ConfigurableApplicationContext gateway, FlowTracker tracker, ObjectMapper objectMapper) {
+        gateway.getBean(RedisMessageListenerContainer.class).addMessageListener((message, pattern) -> {
+            long at = System.nanoTime();
+            try {
+                for (JsonNode payment : objectMapper.readTree(message.getBody())) {
+                    if (FINAL_STATUSES.contains(payment.path("status").asText())) {
+                        tracker.finalStatus(payment.path("id").asText(), at);
+                    }
+                }
+            } catch (IOException e) {
+                log.warn("Unreadable payment status message: {}", e.getMessage());
+            }
+        }, new ChannelTopic(PaymentStatusEvents.CHANNEL));
+    }
+
+    private static void drain(FlowTracker tracker, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        long[] outstanding = tracker.outstanding();
+        while ((outstanding[0] > 0 || outstanding[1] > 0) && System.nanoTime() < deadline) {
+            log.info("Waiting for {} final statuses and {} webhooks", outstanding[0], outstanding[1]);
+            Thread.sleep(1000);
+            outstanding = tracker.outstanding();
+        }
+    }
+
+    private static void printReport(LoadTestOptions options, long checkouts, long webhooks, List<Latencies> results) {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%n%.1f checkouts/s for %s: %d measured checkouts, %d webhook requests received%n",
+                options.rate(), options.duration(), checkouts, webhooks));
+        report.append(String.format("%-26s %8s %8s %10s %10s %10s %10s%n",
+                "", "count", "failed", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+        for (Latencies latencies : results) {
+            report.append(String.format("%-26s %8d %8d %10.2f %10.2f %10.2f %10.2f%n",
+                    latencies.name(), latencies.count(), latencies.failures(),
+                    latencies.percentileMs(50), latencies.percentileMs(99), latencies.percentileMs(99.9), latencies.maxMs()));
+        }
+        System.out.println(report);
+    }
+
+    private static void writeReport(LoadTestOptions options, long checkouts, long webhooks, List<Latencies> results) throws IOException {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("rate_per_second", options.rate());
+        json.put("warmup_seconds", options.warmup().toSeconds());
+        json.put("duration_seconds", options.duration().toSeconds());
+        json.put("bank_delay_ms", options.bankDelayMs());
+        json.put("upi_share", options.upiShare());
+        json.put("checkouts", checkouts);
+        json.put("webhook_requests", webhooks);
+        Map<String, Object> latencies = new LinkedHashMap<>();
+        for (Latencies result : results) {
+            latencies.put(result.name(), result.toJson());
+        }
+        json.put("latencies", latencies);
+
+        File file = new File(options.report());
+        if (file.getAbsoluteFile().getParentFile() != null) file.getAbsoluteFile().getParentFile().mkdirs();
+        new ObjectMapper().writer(SerializationFeature.INDENT_OUTPUT).writeValue(file, json);
+        log.info("Report written to {}", file);
+    }
+}
@@ -0,0 +1,85 @@
+package com.gateway.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command line of the harness. Its own options are {@code --name=value}; any other
+ * {@code --app.*}, {@code --spring.*}, {@code --server.*} or {@code --logging.*} argument is passed
+ * on to the gateway, e.g. {@code --app.worker.payment.consumers=8}.
+ */
+record LoadTestOptions(
+        double rate,
+        Duration warmup,
+        Duration duration,
+        Duration drainTimeout,
+        long bankDelayMs,
+        double upiShare,
+        String report,
+        List<String> gatewayArgs) {
+
+    static final String USAGE = """
+            Usage: java -jar loadtest.jar [options] [gateway properties]
+
+              --rate=<per second>     checkouts (POST /orders then POST /payments) started per second, open loop (default 50)
+              --warmup=<duration>     load before measuring starts, e.g. 10s (default 10s)
+              --duration=<duration>   measured load, e.g. 60s or 5m (default 60s)
+              --drain-timeout=<dur>   how long to wait for final statuses and webhooks after the load stops (default 60s)
+              --bank-delay-ms=<ms>    simulated bank delay in the payment worker; -1 keeps the random 5-10 s (default 1000)
+              --upi-share=<0..1>      share of UPI payments, the rest are cards (default 0.5)
+              --report=<file>         JSON report (default target/loadtest-report.json)
+
+            Other --app.*, --spring.*, --server.* and --logging.* arguments are passed to the gateway.
+            """;
+
+    static LoadTestOptions parse(String[] args) {
+        double rate = 50;
+        Duration warmup = Duration.ofSeconds(10);
+        Duration duration = Duration.ofSeconds(60);
+        Duration drainTimeout = Duration.ofSeconds(60);
+        long bankDelayMs = 1000;
+        double upiShare = 0.5;
+        String report = "target/loadtest-report.json";
+        List<String> gatewayArgs = new ArrayList<>();
+
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            String name = eq > 0 ? arg.substring(0, eq) : arg;
+            String value = eq > 0 ? arg.substring(eq + 1) : "";
+            switch (name) {
+                case "--rate" -> rate = Double.parseDouble(value);
+                case "--warmup" -> warmup = parseDuration(value);
+                case "--duration" -> duration = parseDuration(value);
+                case "--drain-timeout" -> drainTimeout = parseDuration(value);
+                case "--bank-delay-ms" -> bankDelayMs = Long.parseLong(value);
+                case "--upi-share" -> upiShare = Double.parseDouble(value);
+                case "--report" -> report = value;
+                default -> {
+                    if (name.startsWith("--app.") || name.startsWith("--spring.") || name.startsWith("--server.")
+                            || name.startsWith("--logging.")) {
+                        gatewayArgs.add(arg);
+                    } else {
+                        throw new IllegalArgumentException("Unknown option " + arg);
+                    }
+                }
+            }
+        }
+        if (rate <= 0) throw new IllegalArgumentException("--rate must be positive");
+        if (upiShare < 0 || upiShare > 1) throw new IllegalArgumentException("--upi-share must be between 0 and 1");
+        return new LoadTestOptions(rate, warmup, duration, drainTimeout, bankDelayMs, upiShare, report, gatewayArgs);
+    }
+
+    // 500ms, 30s, 5m or an ISO-8601 duration (PT30S)
+    private static Duration parseDuration(String value) {
+        if (value.startsWith("P") || value.startsWith("p")) return Duration.parse(value);
+        if (value.endsWith("ms")) return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        return switch (value.charAt(value.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            case 'h' -> Duration.ofHours(amount);
+            default -> throw new IllegalArgumentException("Invalid duration " + value);
+        };
+    }
+}
@@ -0,0 +1,75 @@
+package com.gateway.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stub merchant endpoint: accepts every webhook with 200 and reports payment events to the
+ * {@link FlowTracker} as they arrive.
+ */
+@Slf4j
+final class WebhookReceiver implements AutoCloseable {
+
+    private final HttpServer server;
+    private final FlowTracker tracker;
+    private final ObjectMapper objectMapper;
+    private final LongAdder received = new LongAdder();
+
+    private WebhookReceiver(HttpServer server, FlowTracker tracker, ObjectMapper objectMapper) {
+        this.server = server;
+        this.tracker = tracker;
+        this.objectMapper = objectMapper;
+    }
+
+    static WebhookReceiver start(FlowTracker tracker, ObjectMapper objectMapper) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        WebhookReceiver receiver = new WebhookReceiver(server, tracker, objectMapper);
+        server.createContext("/webhook", receiver::handle);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+        log.info("Webhook receiver listening on {}", receiver.url());
+        return receiver;
+    }
+
+    String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/webhook";
+    }
+
+    long received() {
+        return received.sum();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        long at = System.nanoTime();
+        int status = 200;
+        try (InputStream body = exchange.getRequestBody()) {
+            received.increment();
+            JsonNode event = objectMapper.readTree(body);
+            if (event != null && event.path("event").asText().startsWith("payment.")) {
+                String paymentId = event.path("data").path("payment").path("id").asText(null);
+                if (paymentId != null) tracker.webhookDelivered(paymentId, at);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Bad webhook request: {}", e.getMessage());
+            status = 400;
+        }
+        try (exchange) {
+            exchange.sendResponseHeaders(status, -1);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}